@@ -14,6 +14,17 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Room writes the schema of every database version here, for the migration tests
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
+    }
+
+    sourceSets {
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
     }
 
     buildTypes {
@@ -29,6 +40,21 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        unitTests {
+            isIncludeAndroidResources = true
+            all { test ->
+                // Forwards the DAO performance suite switches, e.g. -Ptaskmanagement.perf=true
+                project.properties
+                    .filterKeys { it.startsWith("taskmanagement.perf") }
+                    .forEach { (key, value) -> test.systemProperty(key, value.toString()) }
+                // The 1M row dataset is materialized in memory by the ordered list query
+                if (project.hasProperty("taskmanagement.perf")) {
+                    test.maxHeapSize = "4g"
+                }
+            }
+        }
+    }
 }
 
 dependencies {
@@ -42,7 +68,11 @@ dependencies {
     implementation(libs.recyclerview)
     implementation(libs.work.runtime)
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
+    testImplementation(libs.test.core)
+    testImplementation(libs.work.testing)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation(libs.room.testing)
     annotationProcessor(libs.room.compiler)
 }
\ No newline at end of file
@@ -0,0 +1,289 @@
+package hua.dit.taskmanagement.adapters;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import hua.dit.taskmanagement.R;
+import hua.dit.taskmanagement.dao.TaskDao;
+import hua.dit.taskmanagement.database.TaskDatabase;
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+import hua.dit.taskmanagement.repositories.TaskListQuery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Measures the notifications, rebinds and layout time caused by database changes under a
+// 10k-row task list, delivered to the adapter by a TaskListQuery as in TaskListFragment
+@RunWith(AndroidJUnit4.class)
+public class TaskAdapterUpdateTest {
+    private static final String TAG = "TaskAdapterUpdateTest";
+    private static final int ROW_COUNT = 10_000;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int RUNS = 11;
+    private static final long START_TIME = 1_700_000_000_000L;
+
+    private Instrumentation instrumentation;
+    private TaskDatabase db;
+    private TaskDao taskDao;
+    private ExecutorService loadExecutor;
+    private CountingAdapter adapter;
+    private RecyclerView recyclerView;
+    private TaskListQuery<TaskRowModel> query;
+    // Released once per snapshot submitted to the adapter
+    private final Semaphore submitted = new Semaphore(0);
+    private volatile List<TaskRowModel> shownRows;
+
+    @Before
+    public void showTasks() throws InterruptedException {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        Context context = new ContextThemeWrapper(instrumentation.getTargetContext(),
+                R.style.Theme_TaskManagement);
+        db = Room.inMemoryDatabaseBuilder(instrumentation.getTargetContext(), TaskDatabase.class)
+                .build();
+        taskDao = db.taskDao();
+        List<Task> tasks = new ArrayList<>(ROW_COUNT);
+        for (int i = 1; i <= ROW_COUNT; i++) {
+            tasks.add(task(i, "Task " + i, START_TIME + i * 60_000L));
+        }
+        taskDao.insertAll(tasks);
+
+        loadExecutor = Executors.newSingleThreadExecutor();
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        instrumentation.runOnMainSync(() -> {
+            adapter = new CountingAdapter(new TaskRowModel.Factory(context));
+            recyclerView = new RecyclerView(context);
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+            recyclerView.setItemAnimator(null);
+            recyclerView.setAdapter(adapter);
+            // The same wiring as TaskListFragment, over one window holding every task
+            query = new TaskListQuery<>(taskDao, db.getInvalidationTracker(), loadExecutor,
+                    mainHandler::post, null, ROW_COUNT, adapter.getRowFactory()::create,
+                    new TaskListQuery.Observer<TaskRowModel>() {
+                        @Override
+                        public void onChanged(List<TaskRowModel> rows, DiffUtil.DiffResult changes,
+                                              int limit) {
+                            adapter.submitRows(rows, changes);
+                            shownRows = rows;
+                            submitted.release();
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            throw new AssertionError(error);
+                        }
+                    });
+            query.start();
+        });
+        awaitShown(ROW_COUNT, 1);
+        layout();
+        assertTrue(adapter.bindCount > 0);
+    }
+
+    @After
+    public void closeDatabase() {
+        instrumentation.runOnMainSync(() -> query.close());
+        loadExecutor.shutdown();
+        db.close();
+    }
+
+    @Test
+    public void databaseChange_dispatchesOnlyGranularNotifications() throws InterruptedException {
+        adapter.resetCounts();
+        NotificationCounter counter = new NotificationCounter();
+        instrumentation.runOnMainSync(() -> adapter.registerAdapterDataObserver(counter));
+
+        // One committed change set: a rename, a delete and a task that sorts first
+        db.runInTransaction(() -> {
+            taskDao.update(task(6, "Renamed", START_TIME + 6 * 60_000L));
+            taskDao.deleteById(3);
+            taskDao.insert(task(ROW_COUNT + 1, "New", START_TIME));
+        });
+        awaitShown(ROW_COUNT, ROW_COUNT + 1);
+        instrumentation.runOnMainSync(() -> adapter.unregisterAdapterDataObserver(counter));
+
+        assertEquals(0, counter.fullChanges);
+        // One insert, one remove and one change
+        assertEquals(3, counter.rangeNotifications);
+        long elapsed = layout();
+        Log.i(TAG, "Granular update: " + adapter.bindCount + " binds, layout " + elapsed + " ns");
+        // Only the inserted row and the changed row are bound again, plus at most the row that
+        // scrolls into view at the bottom
+        assertTrue(adapter.bindCount >= 2 && adapter.bindCount <= 3);
+        assertEquals(ROW_COUNT, adapter.getItemCount());
+    }
+
+    @Test
+    public void databaseChange_laysOutFasterThanAFullRefresh() throws InterruptedException {
+        int visibleRows = recyclerView.getChildCount();
+        assertTrue(visibleRows > 2);
+
+        long[] granular = new long[RUNS];
+        int granularBinds = 0;
+        for (int run = 0; run < RUNS; run++) {
+            // Renames a visible task, the snapshot carries one change
+            int uid = run % visibleRows + 1;
+            String name = "Renamed " + run;
+            adapter.resetCounts();
+            taskDao.update(task(uid, name, START_TIME + uid * 60_000L));
+            awaitRenamed(uid, name);
+            granular[run] = layout();
+            granularBinds = Math.max(granularBinds, adapter.bindCount);
+        }
+
+        long[] full = new long[RUNS];
+        int fullBinds = Integer.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            adapter.resetCounts();
+            instrumentation.runOnMainSync(() -> adapter.notifyDataSetChanged());
+            full[run] = layout();
+            fullBinds = Math.min(fullBinds, adapter.bindCount);
+        }
+
+        long granularMedian = median(granular);
+        long fullMedian = median(full);
+        Log.i(TAG, "Layout median: granular " + granularMedian + " ns (" + granularBinds +
+                " binds), full refresh " + fullMedian + " ns (" + fullBinds + " binds)");
+        assertEquals(1, granularBinds);
+        // The baseline the granular update avoids: every visible row is bound again
+        assertTrue(fullBinds >= visibleRows);
+        assertTrue("Granular layout " + granularMedian + " ns, full refresh " + fullMedian + " ns",
+                granularMedian < fullMedian);
+    }
+
+    // Waits for a snapshot with the given number of rows and first task
+    private void awaitShown(int rowCount, int firstUid) throws InterruptedException {
+        while (shownRows == null || shownRows.size() != rowCount
+                || shownRows.get(0).getTask().getUid() != firstUid) {
+            assertTrue(submitted.tryAcquire(10, TimeUnit.SECONDS));
+        }
+    }
+
+    // Waits for a snapshot showing the new name of a task
+    private void awaitRenamed(int uid, String name) throws InterruptedException {
+        while (!name.equals(shortNameOf(uid))) {
+            assertTrue(submitted.tryAcquire(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private String shortNameOf(int uid) {
+        List<TaskRowModel> rows = shownRows;
+        for (TaskRowModel row : rows) {
+            if (row.getTask().getUid() == uid) {
+                return row.getTask().getShortName();
+            }
+        }
+        return null;
+    }
+
+    // Runs a measure and layout pass on the main thread and returns its duration
+    private long layout() {
+        long[] elapsed = new long[1];
+        instrumentation.runOnMainSync(() -> {
+            long start = SystemClock.elapsedRealtimeNanos();
+            recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            recyclerView.layout(0, 0, WIDTH, HEIGHT);
+            elapsed[0] = SystemClock.elapsedRealtimeNanos() - start;
+        });
+        return elapsed[0];
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static Task task(int uid, String shortName, long startTime) {
+        Task task = new Task(shortName, "Description " + uid, new Date(startTime), 2,
+                "Location " + uid);
+        task.setUid(uid);
+        task.setStatus(TaskStatus.RECORDED);
+        return task;
+    }
+
+    // Counts the binds done by the adapter
+    private static class CountingAdapter extends TaskAdapter {
+        int bindCount;
+
+        CountingAdapter(TaskRowModel.Factory rowFactory) {
+            super(rowFactory);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
+            bindCount++;
+            super.onBindViewHolder(holder, position);
+        }
+
+        void resetCounts() {
+            bindCount = 0;
+        }
+    }
+
+    // Counts full and ranged notifications
+    private static class NotificationCounter extends RecyclerView.AdapterDataObserver {
+        int fullChanges;
+        int rangeNotifications;
+
+        @Override
+        public void onChanged() {
+            fullChanges++;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            rangeNotifications++;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            onItemRangeChanged(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            rangeNotifications++;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            rangeNotifications++;
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            rangeNotifications++;
+        }
+    }
+}
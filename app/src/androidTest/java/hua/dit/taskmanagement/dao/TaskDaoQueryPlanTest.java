@@ -0,0 +1,109 @@
+package hua.dit.taskmanagement.dao;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import hua.dit.taskmanagement.database.TaskDatabase;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Verifies that the ordered open-task queries are served by the (status, start_time) index
+// without a temporary B-tree sort
+@RunWith(AndroidJUnit4.class)
+public class TaskDaoQueryPlanTest {
+    private TaskDatabase db;
+
+    @Before
+    public void createDatabase() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, TaskDatabase.class).build();
+    }
+
+    @After
+    public void closeDatabase() {
+        db.close();
+    }
+
+    @Test
+    public void nonCompletedOrdered_usesIndexWithoutTempBTree() {
+        assertIndexedWithoutSort(explain(TaskDao.QUERY_NON_COMPLETED_ORDERED));
+    }
+
+    @Test
+    public void firstPage_usesIndexWithoutTempBTree() {
+        assertIndexedWithoutSort(explain(bindPageArguments(TaskDao.QUERY_FIRST_PAGE)));
+    }
+
+    @Test
+    public void pageFrom_usesIndexWithoutTempBTree() {
+        assertIndexedWithoutSort(explain(bindPageArguments(TaskDao.QUERY_PAGE_FROM)));
+    }
+
+    @Test
+    public void pageFrom_seeksOnStartTime() {
+        assertSeeksOnStartTime(explain(bindPageArguments(TaskDao.QUERY_PAGE_FROM)), ">");
+    }
+
+    @Test
+    public void pageBefore_usesIndexWithoutTempBTree() {
+        assertIndexedWithoutSort(explain(bindPageArguments(TaskDao.QUERY_PAGE_BEFORE)));
+    }
+
+    @Test
+    public void pageBefore_seeksOnStartTime() {
+        assertSeeksOnStartTime(explain(bindPageArguments(TaskDao.QUERY_PAGE_BEFORE)), "<");
+    }
+
+    // Replaces the named Room parameters of the page queries with literal values
+    private static String bindPageArguments(String sql) {
+        return sql.replace(":statusRank", "2")
+                .replace(":startTime", "1700000000000")
+                .replace(":uid", "42")
+                .replace(":limit", "50");
+    }
+
+    // Returns the detail column of every EXPLAIN QUERY PLAN row
+    private List<String> explain(String sql) {
+        List<String> details = new ArrayList<>();
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase().query("EXPLAIN QUERY PLAN " + sql)) {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detailIndex));
+            }
+        }
+        return details;
+    }
+
+    private static void assertIndexedWithoutSort(List<String> plan) {
+        boolean usesIndex = false;
+        for (String detail : plan) {
+            assertFalse("Unexpected sort in plan: " + plan, detail.contains("TEMP B-TREE"));
+            usesIndex |= detail.contains("index_tasks_status_start_time");
+        }
+        assertTrue("Index not used in plan: " + plan, usesIndex);
+    }
+
+    // A seek on status alone reads every task of the key's status before the page, so the
+    // index search must be bounded on both columns
+    private static void assertSeeksOnStartTime(List<String> plan, String direction) {
+        boolean seeks = false;
+        for (String detail : plan) {
+            seeks |= detail.contains("index_tasks_status_start_time ((status,start_time)" +
+                    direction + "(?,?)");
+        }
+        assertTrue("No seek on start_time in plan: " + plan, seeks);
+    }
+}
@@ -0,0 +1,143 @@
+package hua.dit.taskmanagement.dao;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import hua.dit.taskmanagement.database.TaskDatabase;
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Verifies that the full-text index follows writes to tasks, ranks matches and stays fast at 100k rows
+@RunWith(AndroidJUnit4.class)
+public class TaskSearchIndexTest {
+    private static final String TAG = "TaskSearchIndexTest";
+    private static final int LARGE_SIZE = 100_000;
+    private static final int BATCH_SIZE = 5_000;
+    private static final int RUNS = 21;
+    private static final long MAX_MEDIAN_MILLIS = 10;
+    // A broad query scores several thousand matches inside SQLite before keeping the best
+    private static final long MAX_BROAD_MEDIAN_MILLIS = 100;
+
+    private static final String[] WORDS = {
+            "meeting", "report", "review", "invoice", "design", "lecture", "exam", "library",
+            "project", "budget", "client", "lab", "deadline", "seminar", "thesis", "presentation"};
+
+    private TaskDatabase db;
+    private TaskDao taskDao;
+
+    @Before
+    public void createDatabase() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, TaskDatabase.class).build();
+        TaskDatabase.createSearchIndex(db.getOpenHelper().getWritableDatabase());
+        taskDao = db.taskDao();
+    }
+
+    @After
+    public void closeDatabase() {
+        db.close();
+    }
+
+    @Test
+    public void search_ranksShortNameHitsFirst() {
+        int inDescription = (int) taskDao.insert(task("Weekly sync", "Discuss the budget", "Office"));
+        int inShortName = (int) taskDao.insert(task("Budget review", "Quarterly numbers", "Office"));
+        taskDao.insert(task("Lunch", "Nothing to see", "Cafeteria"));
+
+        List<Task> results = TaskSearch.search(taskDao, "budg", TaskSearch.DEFAULT_LIMIT);
+        assertEquals(2, results.size());
+        assertEquals(inShortName, results.get(0).getUid());
+        assertEquals(inDescription, results.get(1).getUid());
+    }
+
+    @Test
+    public void search_requiresEveryWord() {
+        int both = (int) taskDao.insert(task("Library visit", "Return the thesis", "Campus"));
+        taskDao.insert(task("Library visit", "Borrow books", "Campus"));
+
+        int[] uids = TaskSearch.rankedUids(taskDao, "lib thes", TaskSearch.DEFAULT_LIMIT);
+        assertEquals(1, uids.length);
+        assertEquals(both, uids[0]);
+    }
+
+    @Test
+    public void index_followsUpdatesAndDeletes() {
+        int uid = (int) taskDao.insert(task("Exam preparation", "Chapters 1-3", "Home"));
+
+        // A status change leaves the text, and the index, untouched
+        taskDao.updateTaskStatus(uid, TaskStatus.IN_PROGRESS);
+        assertEquals(1, TaskSearch.rankedUids(taskDao, "exam", 10).length);
+
+        Task task = taskDao.getTaskById(uid);
+        task.setShortName("Seminar preparation");
+        taskDao.update(task);
+        assertEquals(0, TaskSearch.rankedUids(taskDao, "exam", 10).length);
+        assertEquals(1, TaskSearch.rankedUids(taskDao, "seminar", 10).length);
+
+        taskDao.deleteById(uid);
+        assertEquals(0, TaskSearch.rankedUids(taskDao, "seminar", 10).length);
+    }
+
+    @Test
+    public void search_at100kRows_staysWithinBudget() {
+        Random random = new Random(11);
+        for (int inserted = 0; inserted < LARGE_SIZE; inserted += BATCH_SIZE) {
+            List<Task> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                int number = inserted + i;
+                batch.add(task(word(random) + " " + word(random) + " " + number,
+                        word(random) + " " + word(random) + " " + word(random),
+                        "Room " + random.nextInt(500)));
+            }
+            taskDao.insertAll(batch);
+        }
+
+        // A selective query: one task name holds this number
+        long selective = medianMillis("12345", 1);
+        // A broad prefix query: about one in eight tasks has this word in its name
+        long broad = medianMillis("meet lib", TaskSearch.DEFAULT_LIMIT);
+        Log.i(TAG, "Search at " + LARGE_SIZE + " rows: selective " + selective + " ms, broad " + broad + " ms");
+        assertTrue("Selective search took " + selective + " ms", selective < MAX_MEDIAN_MILLIS);
+        assertTrue("Broad search took " + broad + " ms", broad < MAX_BROAD_MEDIAN_MILLIS);
+    }
+
+    // Runs a search several times and returns the median duration
+    private long medianMillis(String text, int expectedAtLeast) {
+        long[] durations = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            List<Task> results = TaskSearch.search(taskDao, text, TaskSearch.DEFAULT_LIMIT);
+            durations[run] = (SystemClock.elapsedRealtimeNanos() - start) / 1_000_000;
+            assertTrue(results.size() >= expectedAtLeast);
+        }
+        Arrays.sort(durations);
+        return durations[RUNS / 2];
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static Task task(String shortName, String description, String location) {
+        return new Task(shortName, description, new Date(1_700_000_000_000L), 1, location);
+    }
+}
@@ -0,0 +1,132 @@
+package hua.dit.taskmanagement.database;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import hua.dit.taskmanagement.dao.TaskSearch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Upgrades databases created from the exported schemas of earlier versions and checks their rows
+// runMigrationsAndValidate also checks the migrated tables against the schema of the new version
+@RunWith(AndroidJUnit4.class)
+public class TaskDatabaseMigrationTest {
+    private static final String TEST_DB = "migration-test";
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), TaskDatabase.class);
+
+    @Test
+    public void migrate1To2_ranksLegacyStatuses() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1)) {
+            insertLegacyTasks(db);
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(
+                TEST_DB, 2, true, TaskDatabase.MIGRATION_1_2)) {
+            assertColumnByUid(db, "SELECT uid, status_rank FROM tasks ORDER BY uid",
+                    new int[]{1, 2, 3, 5, 4, 4});
+        }
+    }
+
+    @Test
+    public void migrate2To3_storesStatusCodes() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 2)) {
+            insertLegacyTasks(db);
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(
+                TEST_DB, 3, true, TaskDatabase.MIGRATION_2_3)) {
+            // Unknown and missing legacy statuses become recorded
+            assertColumnByUid(db, "SELECT uid, status FROM tasks ORDER BY uid",
+                    new int[]{1, 2, 3, 4, 3, 3});
+            try (Cursor cursor = db.query("SELECT short_name, start_time, duration_hours " +
+                    "FROM tasks WHERE uid = 1")) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals("Task 1", cursor.getString(0));
+                assertEquals(1_700_000_000_000L, cursor.getLong(1));
+                assertEquals(2, cursor.getInt(2));
+            }
+        }
+    }
+
+    @Test
+    public void migrate1To3_chainsBothMigrations() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1)) {
+            insertLegacyTasks(db);
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(
+                TEST_DB, 3, true, TaskDatabase.MIGRATION_1_2, TaskDatabase.MIGRATION_2_3)) {
+            assertColumnByUid(db, "SELECT uid, status FROM tasks ORDER BY uid",
+                    new int[]{1, 2, 3, 4, 3, 3});
+        }
+    }
+
+    @Test
+    public void migrate3To4_indexesExistingTasks() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 3)) {
+            db.execSQL("INSERT INTO tasks (uid, short_name, description, start_time, " +
+                    "duration_hours, location, status) VALUES " +
+                    "(1, 'Library visit', 'Return the books', 1700000000000, 2, 'Campus', 3), " +
+                    "(2, 'Weekly sync', 'Meet at the library', 1700000000000, 1, 'Office', 2), " +
+                    "(3, 'Dentist', NULL, NULL, NULL, NULL, 3)");
+        }
+
+        helper.runMigrationsAndValidate(TEST_DB, 4, true, TaskDatabase.MIGRATION_3_4).close();
+
+        // Searches through Room, as the app does after the upgrade
+        TaskDatabase db = Room.databaseBuilder(InstrumentationRegistry.getInstrumentation()
+                        .getTargetContext(), TaskDatabase.class, TEST_DB)
+                .addMigrations(TaskDatabase.MIGRATION_3_4)
+                .build();
+        try {
+            // Rows written before the upgrade are found, the short name hit first
+            assertArrayEquals(new int[]{1, 2}, TaskSearch.rankedUids(db.taskDao(), "libr", 10));
+            assertArrayEquals(new int[]{3}, TaskSearch.rankedUids(db.taskDao(), "dentist", 10));
+            // Writes after the upgrade reach the index through its triggers
+            db.taskDao().deleteById(1);
+            assertArrayEquals(new int[]{2}, TaskSearch.rankedUids(db.taskDao(), "libr", 10));
+        } finally {
+            db.close();
+        }
+    }
+
+    // Inserts one task per legacy status string, plus an unknown and a missing status
+    // Columns are named, so the rows fit both the version 1 and the version 2 table
+    private static void insertLegacyTasks(SupportSQLiteDatabase db) {
+        String[] statuses = {"'expired'", "'in-progress'", "'recorded'", "'completed'",
+                "'postponed'", "NULL"};
+        for (int i = 0; i < statuses.length; i++) {
+            int uid = i + 1;
+            db.execSQL("INSERT INTO tasks (uid, short_name, description, start_time, " +
+                    "duration_hours, location, status) VALUES (" + uid + ", 'Task " + uid +
+                    "', 'Description', 1700000000000, 2, 'Office', " + statuses[i] + ")");
+        }
+    }
+
+    // Checks the second column of a query against the expected values, one row per uid
+    private static void assertColumnByUid(SupportSQLiteDatabase db, String sql, int[] expected) {
+        try (Cursor cursor = db.query(sql)) {
+            assertEquals(expected.length, cursor.getCount());
+            for (int i = 0; cursor.moveToNext(); i++) {
+                assertEquals(i + 1, cursor.getInt(0));
+                assertEquals("uid " + (i + 1), expected[i], cursor.getInt(1));
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package hua.dit.taskmanagement;
 import android.app.Application;
 import android.util.Log;
 import hua.dit.taskmanagement.repositories.TaskRepositoryManager;
+import hua.dit.taskmanagement.utils.TaskTransitionIndex;
+import hua.dit.taskmanagement.workers.TaskTransitionScheduler;
 import java.io.IOException;
 
 // Custom Application class that handles initialization and cleanup
@@ -17,6 +19,12 @@ public class TaskManagementApplication extends Application {
     public void onCreate() {
         super.onCreate();
         repositoryManager = TaskRepositoryManager.getInstance(this);
+
+        // Load the in-memory timeline of upcoming status transitions
+        TaskTransitionIndex.getInstance(this).buildAsync();
+
+        // Keep a status sweep scheduled for the next due transition
+        TaskTransitionScheduler.getInstance(this).start();
     }
 
     // Performs cleanup by closing the TaskRepositoryManager when the app terminates.
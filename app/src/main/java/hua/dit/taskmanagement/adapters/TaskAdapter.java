@@ -5,23 +5,34 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import hua.dit.taskmanagement.R;
 import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.repositories.TaskPageKey;
 
 // Adapter class for handling the display of Task items in a RecyclerView
 public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder> {
-    // List to store task items
-    private List<Task> tasks = new ArrayList<>();
+    // Number of tasks loaded per page
+    public static final int PAGE_SIZE = 50;
+    // Maximum number of pages kept in memory; pages past the window are dropped
+    public static final int MAX_PAGES = 4;
+
+    // Display models of the shown tasks, in display order
+    private List<TaskRowModel> rows = new ArrayList<>();
+    // Builds the display models off the main thread
+    private final TaskRowModel.Factory rowFactory;
     // Interface instances for handling click events
     private OnTaskClickListener clickListener;
     private OnTaskLongClickListener longClickListener;
-    // Date formatter for consistent date display
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
+
+    // Items are identified by task uid, so RecyclerView keeps each task's ViewHolder across updates
+    public TaskAdapter(TaskRowModel.Factory rowFactory) {
+        this.rowFactory = rowFactory;
+        setHasStableIds(true);
+    }
 
     // Creates new ViewHolder instances for the RecyclerView
     @NonNull
@@ -33,48 +44,43 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
     }
 
     // Binds data to the ViewHolder for display
+    // Rows are formatted when they load, so binding only assigns fields
     @Override
     public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-        Task currentTask = tasks.get(position);
-        holder.idTextView.setText(String.format("ID: %d", currentTask.getUid()));
-        holder.titleTextView.setText(currentTask.getShortName());
-
-        // Handle date display with null check
-        if (currentTask.getStartTime() != null) {
-            holder.timeTextView.setText(dateFormat.format(currentTask.getStartTime()));
-        } else {
-            holder.timeTextView.setText("No date set");
-        }
-
-        // Set status text with null check
-        String status = currentTask.getStatus() != null ? currentTask.getStatus() : "N/A";
-        holder.statusTextView.setText(String.format("Status: %s", status));
-
-        // Set text color based on task status
-        int textColor;
-        switch (status) {
-            case "expired":
-                textColor = holder.itemView.getContext().getResources().getColor(android.R.color.holo_red_dark);
-                break;
-            case "in-progress":
-                textColor = holder.itemView.getContext().getResources().getColor(android.R.color.holo_orange_dark);
-                break;
-            default:
-                textColor = holder.itemView.getContext().getResources().getColor(android.R.color.darker_gray);
-                break;
-        }
-        holder.statusTextView.setTextColor(textColor);
+        TaskRowModel row = rows.get(position);
+        holder.idTextView.setText(row.getIdText());
+        holder.titleTextView.setText(row.getTitleText());
+        holder.timeTextView.setText(row.getTimeText());
+        holder.statusTextView.setText(row.getStatusText());
+        holder.statusTextView.setTextColor(row.getStatusColor());
     }
 
     // Returns the total number of items in the adapter
     @Override
     public int getItemCount() {
-        return tasks.size();
+        return rows.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return rows.get(position).getTask().getUid();
+    }
+
+    // Replaces the displayed rows with a new snapshot, notifying only the items in the change set
+    // changes must turn the displayed list into rows, as computed by TaskListQuery
+    public void submitRows(List<TaskRowModel> rows, DiffUtil.DiffResult changes) {
+        this.rows = rows;
+        changes.dispatchUpdatesTo(this);
+    }
+
+    // Factory of the display models, usable as the row mapper of a TaskListQuery
+    public TaskRowModel.Factory getRowFactory() {
+        return rowFactory;
     }
 
-    public void setTasks(List<Task> tasks) {
-        this.tasks = tasks;
-        notifyDataSetChanged();
+    // Key of the task at the given position
+    public TaskPageKey getKeyAt(int position) {
+        return TaskPageKey.of(rows.get(position).getTask());
     }
 
     public void setOnTaskClickListener(OnTaskClickListener listener) {
@@ -105,7 +111,7 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (clickListener != null && position != RecyclerView.NO_POSITION) {
-                    clickListener.onTaskClick(tasks.get(position));
+                    clickListener.onTaskClick(rows.get(position).getTask());
                 }
             });
 
@@ -113,7 +119,7 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             itemView.setOnLongClickListener(v -> {
                 int position = getAdapterPosition();
                 if (longClickListener != null && position != RecyclerView.NO_POSITION) {
-                    longClickListener.onTaskLongClick(tasks.get(position));
+                    longClickListener.onTaskLongClick(rows.get(position).getTask());
                     return true;
                 }
                 return false;
@@ -0,0 +1,94 @@
+package hua.dit.taskmanagement.adapters;
+
+import android.content.Context;
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.utils.DateFormats;
+
+// Immutable display form of a task row: every string is formatted and the status color resolved
+// when the data loads, off the main thread, so binding a row only assigns fields
+public final class TaskRowModel {
+    private final Task task;
+    private final String idText;
+    private final String titleText;
+    private final String timeText;
+    private final String statusText;
+    private final int statusColor;
+
+    private TaskRowModel(Task task, String idText, String titleText, String timeText,
+                         String statusText, int statusColor) {
+        this.task = task;
+        this.idText = idText;
+        this.titleText = titleText;
+        this.timeText = timeText;
+        this.statusText = statusText;
+        this.statusColor = statusColor;
+    }
+
+    // Task shown by the row, passed to click listeners; must not be modified
+    public Task getTask() {
+        return task;
+    }
+
+    public String getIdText() {
+        return idText;
+    }
+
+    public String getTitleText() {
+        return titleText;
+    }
+
+    public String getTimeText() {
+        return timeText;
+    }
+
+    public String getStatusText() {
+        return statusText;
+    }
+
+    public int getStatusColor() {
+        return statusColor;
+    }
+
+    // Builds row models; safe to use from any thread
+    // Colors are resolved once when the factory is created
+    public static final class Factory {
+        private final int expiredColor;
+        private final int inProgressColor;
+        private final int defaultColor;
+        // Shared memoizing formatter for consistent date display
+        private final DateFormats dateFormats = DateFormats.getDefault();
+
+        public Factory(Context context) {
+            expiredColor = context.getColor(android.R.color.holo_red_dark);
+            inProgressColor = context.getColor(android.R.color.holo_orange_dark);
+            defaultColor = context.getColor(android.R.color.darker_gray);
+        }
+
+        public TaskRowModel create(Task task) {
+            String timeText;
+            if (task.getStartTime() != null) {
+                timeText = dateFormats.formatDisplay(task.getStartTime().getTime());
+            } else {
+                timeText = "No date set";
+            }
+            return new TaskRowModel(task,
+                    String.format("ID: %d", task.getUid()),
+                    task.getShortName(),
+                    timeText,
+                    String.format("Status: %s", task.getStatus().getLabel()),
+                    colorOf(task));
+        }
+
+        // Text color of the status, based on the task status
+        private int colorOf(Task task) {
+            switch (task.getStatus()) {
+                case EXPIRED:
+                    return expiredColor;
+                case IN_PROGRESS:
+                    return inProgressColor;
+                default:
+                    return defaultColor;
+            }
+        }
+    }
+}
@@ -23,7 +23,7 @@ public class TaskViewHolder extends RecyclerView.ViewHolder {
 
     public void bind(Task task, TaskAdapter.OnTaskClickListener clickListener, TaskAdapter.OnTaskLongClickListener longClickListener) {
         textViewTitle.setText(task.getShortName());
-        textViewStatus.setText(task.getStatus());
+        textViewStatus.setText(task.getStatus().getLabel());
         textViewTime.setText(task.getStartTime().toString());
 
         itemView.setOnClickListener(v -> {
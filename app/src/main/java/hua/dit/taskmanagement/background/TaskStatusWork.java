@@ -4,12 +4,10 @@ import android.os.Handler;
 import android.util.Log;
 import android.widget.TextView;
 
-import java.util.List;
 import java.util.concurrent.Executor;
 
-import hua.dit.taskmanagement.entities.Task;
 import hua.dit.taskmanagement.repositories.TaskRepository;
-import hua.dit.taskmanagement.utils.TaskStatusManager;
+import hua.dit.taskmanagement.utils.TaskStatusSweeper;
 
 public class TaskStatusWork {
     private static final String TAG = "TaskStatusWork";
@@ -30,28 +28,13 @@ public class TaskStatusWork {
         this.executor.execute(() -> {
             Log.i(TAG, "checkTaskStatuses() START - Checking task statuses");
 
-            taskRepository.getNonCompletedTasks(new TaskRepository.DataCallback<List<Task>>() {
+            taskRepository.sweepTaskStatuses(new TaskRepository.DataCallback<TaskStatusSweeper.Result>() {
                 @Override
-                public void onDataLoaded(List<Task> tasks) {
-                    for (Task task : tasks) {
-                        String currentStatus = task.getStatus();
-                        String newStatus = TaskStatusManager.determineTaskStatus(task);
-
-                        if (!currentStatus.equals(newStatus) &&
-                                TaskStatusManager.canTransitionTo(currentStatus, newStatus)) {
-
-                            Log.i(TAG, "Task " + task.getUid() + " status changing from " +
-                                    currentStatus + " to " + newStatus);
-
-                            task.setStatus(newStatus);
-                            updateTaskStatus(task, currentStatus, newStatus);
-
-                            try { Thread.sleep(1000); } catch (Throwable t) {}
-                        }
-                    }
-
-                    Log.i(TAG, "checkTaskStatuses() END");
-                    updateAppUI("Task status check completed!");
+                public void onDataLoaded(TaskStatusSweeper.Result result) {
+                    Log.i(TAG, "checkTaskStatuses() END - " + result);
+                    updateAppUI(result.isSkipped() ? "Task status check skipped, nothing is due"
+                            : "Task status check completed! " +
+                            result.getTransitionCount() + " status change(s)");
                 }
 
                 @Override
@@ -63,21 +46,6 @@ public class TaskStatusWork {
         });
     }
 
-    private void updateTaskStatus(Task task, String oldStatus, String newStatus) {
-        taskRepository.updateTaskStatus(task.getUid(), newStatus, new TaskRepository.OperationCallback() {
-            @Override
-            public void onSuccess(long result) {
-                Log.i(TAG, "Successfully updated task " + task.getUid() + " status");
-                TaskStatusManager.logStatusTransition(task, oldStatus, newStatus);
-            }
-
-            @Override
-            public void onError(String error) {
-                Log.e(TAG, "Error updating task " + task.getUid() + " status: " + error);
-            }
-        });
-    }
-
     private void updateAppUI(String message) {
         this.handler.post(() -> {
             this.statusTextView.setText(message);
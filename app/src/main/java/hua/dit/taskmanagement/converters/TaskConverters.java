@@ -3,7 +3,9 @@ package hua.dit.taskmanagement.converters;
 import androidx.room.TypeConverter;
 import java.util.Date;
 
-// Converter class for handling Date objects in Room database
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+// Converter class for handling Date and TaskStatus objects in Room database
 public class TaskConverters {
     // Converts Date object to Long timestamp for database storage
     @TypeConverter
@@ -16,4 +18,16 @@ public class TaskConverters {
     public Date longToDate(Long longval) {
         return (longval != null) ? new Date(longval) : null;
     }
+
+    // Converts TaskStatus to its integer code for database storage
+    @TypeConverter
+    public int statusToCode(TaskStatus status) {
+        return status.getCode();
+    }
+
+    // Converts an integer code from database back to TaskStatus
+    @TypeConverter
+    public TaskStatus codeToStatus(int code) {
+        return TaskStatus.fromCode(code);
+    }
 }
\ No newline at end of file
@@ -5,18 +5,72 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 import java.util.List;
 
 import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
 
 // Data Access Object interface for Task entity
 @Dao
 public interface TaskDao {
+    // Filter matching every non-completed task as one range of the (status, start_time) index
+    // Status codes double as the list rank and completed has the highest code
+    String NON_COMPLETED = "status < 4";
+
+    // Order of the task list; the trailing uid is implied by the (status, start_time) index
+    String LIST_ORDER = "status ASC, start_time ASC, uid ASC";
+    String LIST_ORDER_REVERSED = "status DESC, start_time DESC, uid DESC";
+
+    // Legacy string form of the status code, returned to ContentProvider clients
+    String STATUS_LABEL = "CASE status " +
+            "WHEN 1 THEN 'expired' " +
+            "WHEN 2 THEN 'in-progress' " +
+            "WHEN 3 THEN 'recorded' " +
+            "WHEN 4 THEN 'completed' END";
+
+    // Full-text index over short_name, description and location, kept in sync with tasks by
+    // triggers; created outside Room, see TaskDatabase.SEARCH_INDEX_STATEMENTS
+    String SEARCH_TABLE = "tasks_fts";
+
+    // Start time of a page key whose task has no start time, see TaskPageKey.of
+    // NULL start times sort first within a status, like this value
+    String NO_START_TIME_KEY = "-9223372036854775808";
+
+    // Queries behind the ordered list, shared with the query plan tests
+    String QUERY_NON_COMPLETED_ORDERED = "SELECT * FROM tasks WHERE " + NON_COMPLETED +
+            " ORDER BY status ASC, start_time ASC";
+
+    String QUERY_FIRST_PAGE = "SELECT * FROM tasks WHERE " + NON_COMPLETED +
+            " ORDER BY " + LIST_ORDER + " LIMIT :limit";
+
+    // The page queries seek the (status, start_time) index with a row value comparison
+    // A row value compared with a NULL start time is NULL, so the tasks of the key's status without
+    // a start time are read by a second arm; the merge keeps the list order without a sort
+    String QUERY_PAGE_FROM = "SELECT * FROM tasks WHERE " + NON_COMPLETED +
+            " AND (status, start_time, uid) >= (:statusRank, :startTime, :uid)" +
+            " UNION ALL SELECT * FROM tasks WHERE status = :statusRank AND start_time IS NULL" +
+            " AND uid >= :uid AND :startTime = " + NO_START_TIME_KEY +
+            " ORDER BY " + LIST_ORDER + " LIMIT :limit";
+
+    // Keys are taken from non-completed tasks, so every row before one is non-completed too
+    String QUERY_PAGE_BEFORE = "SELECT * FROM tasks WHERE" +
+            " (status, start_time, uid) < (:statusRank, :startTime, :uid)" +
+            " UNION ALL SELECT * FROM tasks WHERE status = :statusRank AND start_time IS NULL" +
+            " AND uid < (CASE WHEN :startTime = " + NO_START_TIME_KEY +
+            " THEN :uid ELSE 9223372036854775807 END)" +
+            " ORDER BY " + LIST_ORDER_REVERSED + " LIMIT :limit";
+
     // Inserts a new task and returns its generated ID
     @Insert
     public long insert(Task task);
 
+    // Inserts many tasks in a single transaction and returns their generated IDs
+    @Insert
+    public long[] insertAll(List<Task> tasks);
+
     // Updates an existing task and returns number of rows affected
     @Update
     public int update(Task task);
@@ -26,7 +80,7 @@ public interface TaskDao {
     public List<Task> getAllTasks();
 
     // Retrieves all non-completed tasks
-    @Query("SELECT * FROM tasks WHERE status != 'completed'")
+    @Query("SELECT * FROM tasks WHERE " + NON_COMPLETED)
     public List<Task> getNonCompletedTasks();
 
     // Retrieves a specific task by its ID
@@ -43,24 +97,67 @@ public interface TaskDao {
 
     // Updates the status of a specific task and returns number of rows affected
     @Query("UPDATE tasks SET status = :newStatus WHERE uid = :taskId")
-    public int updateTaskStatus(int taskId, String newStatus);
+    public int updateTaskStatus(int taskId, TaskStatus newStatus);
+
+    // Counts the rows a status sweep examines: recorded and in-progress tasks (codes 2 and 3)
+    // Served by the (status, start_time) index
+    @Query("SELECT COUNT(*) FROM tasks WHERE status BETWEEN 2 AND 3")
+    public int countSweepCandidates();
+
+    // Returns the earliest instant at which a sweep has something to do, or null if nothing is due
+    // That is the first start time of a recorded task or the first end time of an in-progress task;
+    // the first is a single index lookup, the second only visits in-progress rows
+    @Query("SELECT MIN(due) FROM (" +
+            "SELECT MIN(start_time) AS due FROM tasks WHERE status = 3 " +
+            "UNION ALL " +
+            "SELECT MIN(start_time + duration_hours * 3600000) FROM tasks WHERE status = 2)")
+    public Long getNextTransitionTime();
+
+    // Moves recorded tasks whose start time has passed to in-progress (3 -> 2)
+    // Served by the (status, start_time) index; returns number of rows affected
+    @Query("UPDATE tasks SET status = 2 WHERE status = 3 AND start_time < :now")
+    public int markStartedTasksInProgress(long now);
+
+    // Moves in-progress tasks whose end time has passed to expired (2 -> 1)
+    // The end time is computed in 64-bit SQL arithmetic; tasks without a duration never expire
+    @Query("UPDATE tasks SET status = 1 WHERE status = 2 " +
+            "AND start_time + duration_hours * 3600000 < :now")
+    public int markEndedTasksExpired(long now);
 
     // Retrieves non-completed tasks ordered by status priority and start time
     // Priority order: expired -> in-progress -> recorded -> others
-    @Query("SELECT * FROM tasks WHERE status != 'completed' ORDER BY " +
-            "CASE status " +
-            "WHEN 'expired' THEN 1 " +
-            "WHEN 'in-progress' THEN 2 " +
-            "WHEN 'recorded' THEN 3 " +
-            "ELSE 4 END, " +
-            "start_time ASC")
+    @Query(QUERY_NON_COMPLETED_ORDERED)
     List<Task> getNonCompletedTasksOrdered();
 
-    // Returns a Cursor containing all tasks (for ContentProvider support)
-    @Query("SELECT * FROM tasks")
-    public Cursor getAllTasksCursor();
+    // Retrieves the first page of non-completed tasks, keyed on (status rank, start time, uid)
+    @Query(QUERY_FIRST_PAGE)
+    List<Task> getNonCompletedTasksFirstPage(int limit);
 
-    // Returns a Cursor for a specific task by ID (for ContentProvider support)
-    @Query("SELECT * FROM tasks WHERE uid = :taskId")
-    public Cursor getTaskByIdCursor(long taskId);
+    // Retrieves the non-completed tasks from the given key on, including the task at the key
+    @Query(QUERY_PAGE_FROM)
+    List<Task> getNonCompletedTasksPageFrom(int statusRank, long startTime, int uid, int limit);
+
+    // Retrieves the page of non-completed tasks that precedes the given key, in reverse order
+    @Query(QUERY_PAGE_BEFORE)
+    List<Task> getNonCompletedTasksPageBefore(int statusRank, long startTime, int uid, int limit);
+
+    // Retrieves the given tasks, in no particular order
+    @Query("SELECT * FROM tasks WHERE uid IN (:uids)")
+    List<Task> getTasksByIds(int[] uids);
+
+    // Runs a full-text query against the search index, see TaskSearch
+    // The index is not a Room entity, so its queries cannot be verified at compile time
+    @RawQuery
+    Cursor searchMatches(SupportSQLiteQuery query);
+
+    // Returns a Cursor over the tasks that still have a status transition ahead of them:
+    // recorded and in-progress tasks (codes 2 and 3), used to build the transition timeline
+    @Query("SELECT uid, status, start_time, duration_hours FROM tasks WHERE status BETWEEN 2 AND 3")
+    public Cursor getTransitionCandidatesCursor();
+
+    // Returns a Cursor over the exported columns of every non-completed task
+    // Rows are streamed window by window, so exports never hold the whole table in memory
+    @Query("SELECT short_name, description, start_time, duration_hours, location, status " +
+            "FROM tasks WHERE " + NON_COMPLETED)
+    public Cursor getNonCompletedTasksExportCursor();
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package hua.dit.taskmanagement.dao;
+
+import android.database.Cursor;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import hua.dit.taskmanagement.entities.Task;
+
+// Full-text search over the short name, description and location of tasks
+// The text is split into words and every word must match the start of a word in one of the
+// columns. FTS4 has no ranking function, so matches are ranked in Java from their matchinfo,
+// keeping only the best in a bounded heap
+public final class TaskSearch {
+    // Maximum number of results when the caller does not choose one
+    public static final int DEFAULT_LIMIT = 50;
+
+    // Per-match statistics, see weights: p (phrases), c (columns) and x (hits per phrase and column)
+    private static final String MATCHINFO = "matchinfo(" + TaskDao.SEARCH_TABLE + ", 'pcx')";
+
+    // Every match with its statistics
+    private static final String QUERY_MATCHES = "SELECT docid, " + MATCHINFO + " FROM " +
+            TaskDao.SEARCH_TABLE + " WHERE " + TaskDao.SEARCH_TABLE + " MATCH ?";
+
+    // Tasks read per query by search; SQLite on API 29 binds at most 999 variables
+    static final int MAX_UIDS_PER_QUERY = 500;
+
+    // Weight of a hit in each indexed column, in the column order of the index
+    // A hit in the short name counts most
+    private static final double[] COLUMN_WEIGHTS = {3.0, 1.0, 1.5};
+
+    // Longest search text in words, each word adds a full-text lookup
+    public static final int MAX_WORDS = 8;
+
+    // Orders matches from worst to best: lower score, then higher uid on a tie
+    private static final Comparator<Match> WORST_FIRST = (a, b) -> a.score != b.score
+            ? Double.compare(a.score, b.score) : Integer.compare(b.uid, a.uid);
+
+    private TaskSearch() {}
+
+    // Builds the FTS4 MATCH expression for a search text: its words as lowercase prefix queries,
+    // all of which must match. Everything except letters and digits separates words, so the
+    // text can never inject FTS operators or syntax. Returns null if the text has no words
+    // Throws IllegalArgumentException if the text has more than MAX_WORDS words
+    public static String matchExpression(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder expression = new StringBuilder();
+        int words = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (!Character.isLetterOrDigit(codePoint)) {
+                i += Character.charCount(codePoint);
+                continue;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+            }
+            if (words == MAX_WORDS) {
+                throw new IllegalArgumentException("Search text has more than " + MAX_WORDS + " words");
+            }
+            if (words > 0) {
+                expression.append(' ');
+            }
+            expression.append(text.substring(start, i).toLowerCase(Locale.ROOT)).append('*');
+            words++;
+        }
+        return words > 0 ? expression.toString() : null;
+    }
+
+    // Weight of one hit of each word in each column, from the 'pcx' matchinfo of any match,
+    // indexed by word * columns + column: the column weight divided by the hits of the word in
+    // the column over all rows, so rare words and hits in the short name count most
+    // A row scores the sum of its hits times their weights
+    static double[] weights(int[] matchinfo) {
+        int phrases = matchinfo[0];
+        int columns = matchinfo[1];
+        double[] weights = new double[phrases * columns];
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int offset = 2 + 3 * (phrase * columns + column);
+                int totalHits = matchinfo[offset + 1];
+                if (totalHits > 0) {
+                    double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                    weights[phrase * columns + column] = weight / totalHits;
+                }
+            }
+        }
+        return weights;
+    }
+
+    // Score of a match: its hits in every word and column times their weights
+    static double score(int[] matchinfo, double[] weights) {
+        double score = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] != 0) {
+                // Hits of this word in this column of the row, see weights for the layout
+                score += weights[i] * (matchinfo[2 + 3 * i] & 0xffffffffL);
+            }
+        }
+        return score;
+    }
+
+    // Decodes a matchinfo blob: 32-bit unsigned integers in the byte order of the device,
+    // as documented for the FTS4 matchinfo function
+    static int[] decodeMatchinfo(byte[] blob) {
+        ByteBuffer buffer = ByteBuffer.wrap(blob).order(ByteOrder.nativeOrder());
+        int[] values = new int[blob.length / 4];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getInt();
+        }
+        return values;
+    }
+
+    // Keeps the best limit matches offered to it; the worst kept match is at the head
+    static final class TopMatches {
+        private final int limit;
+        private final PriorityQueue<Match> heap;
+
+        TopMatches(int limit) {
+            this.limit = limit;
+            heap = new PriorityQueue<>(Math.min(limit, DEFAULT_LIMIT), WORST_FIRST);
+        }
+
+        void offer(int uid, double score) {
+            if (heap.size() < limit) {
+                heap.add(new Match(uid, score));
+                return;
+            }
+            Match worst = heap.peek();
+            if (score > worst.score || (score == worst.score && uid < worst.uid)) {
+                heap.poll();
+                heap.add(new Match(uid, score));
+            }
+        }
+
+        // The uids of the kept matches, best first
+        int[] uids() {
+            Match[] matches = heap.toArray(new Match[0]);
+            Arrays.sort(matches, WORST_FIRST.reversed());
+            int[] uids = new int[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                uids[i] = matches[i].uid;
+            }
+            return uids;
+        }
+    }
+
+    private static final class Match {
+        final int uid;
+        final double score;
+
+        Match(int uid, double score) {
+            this.uid = uid;
+            this.score = score;
+        }
+    }
+
+    // Returns the uids of the best matches for a search text, best first
+    // Every match is scored as SQLite returns it; the hits over all rows are the same in every
+    // match, so the weights come from the first one. Only limit matches are kept
+    // Throws IllegalArgumentException if the text has more than MAX_WORDS words
+    public static int[] rankedUids(TaskDao taskDao, String text, int limit) {
+        String expression = matchExpression(text);
+        if (expression == null || limit <= 0) {
+            return new int[0];
+        }
+        TopMatches best = new TopMatches(limit);
+        try (Cursor matches = taskDao.searchMatches(
+                new SimpleSQLiteQuery(QUERY_MATCHES, new Object[]{expression}))) {
+            double[] weights = null;
+            while (matches.moveToNext()) {
+                int[] matchinfo = decodeMatchinfo(matches.getBlob(1));
+                if (weights == null) {
+                    weights = weights(matchinfo);
+                }
+                best.offer(matches.getInt(0), score(matchinfo, weights));
+            }
+        }
+        return best.uids();
+    }
+
+    // Returns the best matching tasks for a search text, best first
+    // The tasks are read in chunks, so any limit stays within the bound variables SQLite allows
+    // Throws IllegalArgumentException if the text has more than MAX_WORDS words
+    public static List<Task> search(TaskDao taskDao, String text, int limit) {
+        int[] uids = rankedUids(taskDao, text, limit);
+        List<Task> results = new ArrayList<>(uids.length);
+        if (uids.length == 0) {
+            return results;
+        }
+        Map<Integer, Task> tasks = new HashMap<>();
+        for (int from = 0; from < uids.length; from += MAX_UIDS_PER_QUERY) {
+            int[] chunk = Arrays.copyOfRange(uids, from, Math.min(from + MAX_UIDS_PER_QUERY, uids.length));
+            for (Task task : taskDao.getTasksByIds(chunk)) {
+                tasks.put(task.getUid(), task);
+            }
+        }
+        for (int uid : uids) {
+            Task task = tasks.get(uid);
+            // A task deleted between the two reads is skipped
+            if (task != null) {
+                results.add(task);
+            }
+        }
+        return results;
+    }
+}
@@ -1,18 +1,164 @@
 package hua.dit.taskmanagement.database;
 
+import android.content.Context;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
+import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import java.util.concurrent.Executors;
 
 import hua.dit.taskmanagement.converters.TaskConverters;
 import hua.dit.taskmanagement.dao.TaskDao;
 import hua.dit.taskmanagement.entities.Task;
 
-// Database configuration: defines Task as the only entity, sets version to 1, and enables schema export
-@Database(entities = {Task.class}, version = 1, exportSchema = true)
-// Registers type converters for custom data type handling (Date conversions)
+// Database configuration: defines Task as the only entity, sets version to 4, and enables schema export
+@Database(entities = {Task.class}, version = 4, exportSchema = true)
+// Registers type converters for custom data type handling (Date and TaskStatus conversions)
 @TypeConverters({TaskConverters.class})
 public abstract class TaskDatabase extends RoomDatabase {
+    // Name of the database file
+    public static final String DATABASE_NAME = "task_database";
+
+    // Number of threads Room dispatches its own asynchronous queries on, such as invalidation
+    // refreshes. These are Room's threads, not SQLite connections: the framework sizes the
+    // connection pool in WAL mode on its own
+    private static final int QUERY_THREADS = 4;
+
+    // Page cache size in KiB (negative values are KiB in SQLite)
+    // A PRAGMA only reaches the connection it runs on; set in onOpen, this is the primary
+    // connection, which serves every write. WAL reader connections keep the default cache
+    private static final int CACHE_SIZE_KIB = 8192;
+
+    // Full-text search index over the text columns of tasks (see TaskSearch) and its sync triggers
+    // The index is an external content FTS4 table: it stores only the index, the text stays in tasks
+    // unicode61 folds case and diacritics of any script; prefix indexes serve short prefix queries
+    // Updates only re-index when a text column is set, so status changes never touch the index
+    public static final String[] SEARCH_INDEX_STATEMENTS = {
+            "CREATE VIRTUAL TABLE IF NOT EXISTS " + TaskDao.SEARCH_TABLE + " USING fts4(" +
+                    "short_name, description, location, " +
+                    "content=\"tasks\", tokenize=unicode61, prefix=\"2,3\")",
+            "CREATE TRIGGER IF NOT EXISTS tasks_fts_before_update " +
+                    "BEFORE UPDATE OF short_name, description, location ON tasks BEGIN " +
+                    "DELETE FROM " + TaskDao.SEARCH_TABLE + " WHERE docid = old.uid; END",
+            "CREATE TRIGGER IF NOT EXISTS tasks_fts_before_delete " +
+                    "BEFORE DELETE ON tasks BEGIN " +
+                    "DELETE FROM " + TaskDao.SEARCH_TABLE + " WHERE docid = old.uid; END",
+            "CREATE TRIGGER IF NOT EXISTS tasks_fts_after_update " +
+                    "AFTER UPDATE OF short_name, description, location ON tasks BEGIN " +
+                    "INSERT INTO " + TaskDao.SEARCH_TABLE + " (docid, short_name, description, location) " +
+                    "VALUES (new.uid, new.short_name, new.description, new.location); END",
+            "CREATE TRIGGER IF NOT EXISTS tasks_fts_after_insert " +
+                    "AFTER INSERT ON tasks BEGIN " +
+                    "INSERT INTO " + TaskDao.SEARCH_TABLE + " (docid, short_name, description, location) " +
+                    "VALUES (new.uid, new.short_name, new.description, new.location); END"
+    };
+
+    // Process-wide database instance shared by the repository and the ContentProvider
+    private static volatile TaskDatabase instance;
+
     // Abstract method to access the Task DAO
     public abstract TaskDao taskDao();
-}
\ No newline at end of file
+
+    // Gets or creates the process-wide database instance
+    // One instance means one connection pool, one invalidation tracker and one schema validation
+    public static TaskDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (TaskDatabase.class) {
+                if (instance == null) {
+                    instance = Room.databaseBuilder(
+                                    context.getApplicationContext(),
+                                    TaskDatabase.class,
+                                    DATABASE_NAME)
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4)
+                            // WAL lets list reads proceed while the worker or provider write
+                            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                            .setQueryExecutor(Executors.newFixedThreadPool(QUERY_THREADS))
+                            // Keeps observers in sync if another process opens the same file
+                            .enableMultiInstanceInvalidation()
+                            .addCallback(new Callback() {
+                                @Override
+                                public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                                    createSearchIndex(db);
+                                }
+
+                                @Override
+                                public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                                    // Runs on the primary connection only, see CACHE_SIZE_KIB
+                                    db.execSQL("PRAGMA cache_size = -" + CACHE_SIZE_KIB);
+                                }
+                            })
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Version 2 adds the persisted status_rank column and the (status_rank, start_time) index
+    // Existing rows are ranked from their status text
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE tasks ADD COLUMN status_rank INTEGER NOT NULL DEFAULT 4");
+            database.execSQL("UPDATE tasks SET status_rank = CASE status " +
+                    "WHEN 'expired' THEN 1 " +
+                    "WHEN 'in-progress' THEN 2 " +
+                    "WHEN 'recorded' THEN 3 " +
+                    "WHEN 'completed' THEN 5 " +
+                    "ELSE 4 END");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_status_rank_start_time " +
+                    "ON tasks (status_rank, start_time)");
+        }
+    };
+
+    // Version 3 stores the status as its integer code, which also serves as the list rank
+    // SQLite cannot change a column type, so the table is rebuilt; the status_rank column
+    // and its index are replaced by an index on (status, start_time)
+    // Unknown legacy status strings become recorded
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS tasks_new (" +
+                    "uid INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "short_name TEXT, " +
+                    "description TEXT, " +
+                    "start_time INTEGER, " +
+                    "duration_hours INTEGER, " +
+                    "location TEXT, " +
+                    "status INTEGER NOT NULL)");
+            database.execSQL("INSERT INTO tasks_new " +
+                    "(uid, short_name, description, start_time, duration_hours, location, status) " +
+                    "SELECT uid, short_name, description, start_time, duration_hours, location, " +
+                    "CASE status " +
+                    "WHEN 'expired' THEN 1 " +
+                    "WHEN 'in-progress' THEN 2 " +
+                    "WHEN 'completed' THEN 4 " +
+                    "ELSE 3 END " +
+                    "FROM tasks");
+            database.execSQL("DROP TABLE tasks");
+            database.execSQL("ALTER TABLE tasks_new RENAME TO tasks");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_status_start_time " +
+                    "ON tasks (status, start_time)");
+        }
+    };
+
+    // Version 4 adds the full-text search index and indexes the existing rows
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            createSearchIndex(database);
+            database.execSQL("INSERT INTO " + TaskDao.SEARCH_TABLE + "(" + TaskDao.SEARCH_TABLE +
+                    ") VALUES ('rebuild')");
+        }
+    };
+
+    // Creates the search index and its triggers
+    public static void createSearchIndex(SupportSQLiteDatabase database) {
+        for (String statement : SEARCH_INDEX_STATEMENTS) {
+            database.execSQL(statement);
+        }
+    }
+}
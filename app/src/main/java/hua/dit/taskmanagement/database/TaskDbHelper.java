@@ -5,10 +5,12 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 import androidx.annotation.Nullable;
 
+import hua.dit.taskmanagement.dao.TaskDao;
+
 // SQLite database helper class for managing task database creation and version management
 public class TaskDbHelper extends SQLiteOpenHelper {
     // Database version number
-    public static final int DB_VERSION = 1;
+    public static final int DB_VERSION = 4;
 
     // SQL command for creating the tasks table with all required fields
     public static final String CREATE_DB_TABLE =
@@ -19,13 +21,22 @@ public class TaskDbHelper extends SQLiteOpenHelper {
                     "start_time INTEGER, " +
                     "duration_hours INTEGER, " +
                     "location TEXT, " +
-                    "status TEXT NOT NULL" +
+                    "status INTEGER NOT NULL" +
                     ");";
 
+    // SQL command for creating the index behind the ordered open-task queries
+    public static final String CREATE_STATUS_INDEX =
+            "CREATE INDEX IF NOT EXISTS index_tasks_status_start_time " +
+                    "ON tasks (status, start_time);";
+
     // SQL command for dropping the tasks table
     public static final String DROP_DB_TABLE =
             "DROP TABLE IF EXISTS tasks;";
 
+    // SQL command for dropping the search index, its triggers go with the tasks table
+    public static final String DROP_SEARCH_TABLE =
+            "DROP TABLE IF EXISTS " + TaskDao.SEARCH_TABLE + ";";
+
     // Constructor initializes database with provided context and name
     public TaskDbHelper(@Nullable Context context, @Nullable String name) {
         super(context, name, null, DB_VERSION);
@@ -35,12 +46,17 @@ public class TaskDbHelper extends SQLiteOpenHelper {
     @Override
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(CREATE_DB_TABLE);
+        db.execSQL(CREATE_STATUS_INDEX);
+        for (String statement : TaskDatabase.SEARCH_INDEX_STATEMENTS) {
+            db.execSQL(statement);
+        }
     }
 
     // Called when database needs to be upgraded to a new version
     // Current implementation drops and recreates the table
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL(DROP_SEARCH_TABLE);
         db.execSQL(DROP_DB_TABLE);
         onCreate(db);
     }
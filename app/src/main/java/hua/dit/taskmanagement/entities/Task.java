@@ -1,12 +1,15 @@
 package hua.dit.taskmanagement.entities;
 
+import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import java.util.Date;
 
 // Entity class representing a task in the database
-@Entity(tableName = "tasks")
+// The (status, start_time) index serves the ordered and paged open-task queries
+@Entity(tableName = "tasks", indices = {@Index(value = {"status", "start_time"})})
 public class Task {
     // Unique identifier for the task, automatically generated
     @PrimaryKey(autoGenerate = true)
@@ -32,9 +35,10 @@ public class Task {
     @ColumnInfo(name = "location")
     private String location;
 
-    // Current status of the task
+    // Current status of the task, stored as its integer code
+    @NonNull
     @ColumnInfo(name = "status")
-    private String status;
+    private TaskStatus status = TaskStatus.RECORDED;
 
     // Default constructor required by Room
     public Task() {}
@@ -47,7 +51,7 @@ public class Task {
         this.startTime = startTime;
         this.durationHours = durationHours;
         this.location = location;
-        this.status = "recorded";
+        this.status = TaskStatus.RECORDED;
     }
 
     // Getters and setters
@@ -99,14 +103,24 @@ public class Task {
         this.location = location;
     }
 
-    public String getStatus() {
+    @NonNull
+    public TaskStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(@NonNull TaskStatus status) {
         this.status = status;
     }
 
+    // Returns a copy of this task, used where a task must not be shared between callers
+    public Task copy() {
+        Task copy = new Task(shortName, description,
+                startTime != null ? new Date(startTime.getTime()) : null, durationHours, location);
+        copy.uid = uid;
+        copy.status = status;
+        return copy;
+    }
+
     // Returns a string representation of the Task object
     @Override
     public String toString() {
@@ -117,7 +131,7 @@ public class Task {
                 ", startTime=" + startTime +
                 ", durationHours=" + durationHours +
                 ", location='" + location + '\'' +
-                ", status='" + status + '\'' +
+                ", status=" + status +
                 '}';
     }
 }
\ No newline at end of file
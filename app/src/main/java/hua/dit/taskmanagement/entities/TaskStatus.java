@@ -0,0 +1,55 @@
+package hua.dit.taskmanagement.entities;
+
+// Status of a task, persisted as a small integer code
+// Codes double as the list sort rank (expired -> in-progress -> recorded) and completed
+// comes last, so every open task falls in the index range status < COMPLETED
+public enum TaskStatus {
+    EXPIRED(1, "expired"),
+    IN_PROGRESS(2, "in-progress"),
+    RECORDED(3, "recorded"),
+    COMPLETED(4, "completed");
+
+    // Lookup table from code to status, indexed by code
+    private static final TaskStatus[] BY_CODE = new TaskStatus[5];
+    static {
+        for (TaskStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    // Integer code stored in the status column
+    private final int code;
+    // Legacy string form, still used by the ContentProvider and in exports
+    private final String label;
+
+    TaskStatus(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    // Returns the status stored under the given code
+    public static TaskStatus fromCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    // Returns the status with the given legacy string form
+    public static TaskStatus fromLabel(String label) {
+        for (TaskStatus status : values()) {
+            if (status.label.equals(label)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown status: " + label);
+    }
+}
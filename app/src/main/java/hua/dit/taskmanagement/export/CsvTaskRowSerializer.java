@@ -0,0 +1,68 @@
+package hua.dit.taskmanagement.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Writes rows as RFC 4180 CSV with a header line
+// Text fields are always quoted so that an empty string and a missing value stay distinguishable;
+// the start time is written in epoch milliseconds and the status in its string form
+public class CsvTaskRowSerializer implements TaskRowSerializer {
+    private static final String LINE_END = "\r\n";
+
+    @Override
+    public String getMimeType() {
+        return "text/csv";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "csv";
+    }
+
+    @Override
+    public void writeHeader(Writer out) throws IOException {
+        out.write("short_name,description,start_time,duration_hours,location,status" + LINE_END);
+    }
+
+    @Override
+    public void writeRow(Writer out, TaskRow row) throws IOException {
+        writeQuoted(out, row.getShortName());
+        out.write(',');
+        writeQuoted(out, row.getDescription());
+        out.write(',');
+        if (row.hasStartTime()) {
+            out.write(Long.toString(row.getStartTime()));
+        }
+        out.write(',');
+        if (row.hasDurationHours()) {
+            out.write(Integer.toString(row.getDurationHours()));
+        }
+        out.write(',');
+        writeQuoted(out, row.getLocation());
+        out.write(',');
+        writeQuoted(out, row.getStatus().getLabel());
+        out.write(LINE_END);
+    }
+
+    @Override
+    public void writeFooter(Writer out) {
+        // CSV has no trailer
+    }
+
+    // Writes a quoted field, doubling embedded quotes; a null value is written as an empty field
+    static void writeQuoted(Writer out, String input) throws IOException {
+        if (input == null) return;
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < input.length(); i++) {
+            if (input.charAt(i) == '"') {
+                // Copy the run including the quote, then repeat the quote
+                out.write(input, start, i + 1 - start);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(input, start, input.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,51 @@
+package hua.dit.taskmanagement.export;
+
+import android.database.Cursor;
+
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+// Row source over a cursor holding the columns of TaskDao.getNonCompletedTasksExportCursor
+// The cursor is read window by window and is not closed by the source
+public class CursorTaskRowSource implements TaskRowSource {
+    private final Cursor cursor;
+
+    // Column positions, resolved once
+    private final int shortNameIndex;
+    private final int descriptionIndex;
+    private final int startTimeIndex;
+    private final int durationIndex;
+    private final int locationIndex;
+    private final int statusIndex;
+
+    public CursorTaskRowSource(Cursor cursor) {
+        this.cursor = cursor;
+        shortNameIndex = cursor.getColumnIndexOrThrow("short_name");
+        descriptionIndex = cursor.getColumnIndexOrThrow("description");
+        startTimeIndex = cursor.getColumnIndexOrThrow("start_time");
+        durationIndex = cursor.getColumnIndexOrThrow("duration_hours");
+        locationIndex = cursor.getColumnIndexOrThrow("location");
+        statusIndex = cursor.getColumnIndexOrThrow("status");
+    }
+
+    @Override
+    public boolean next(TaskRow row) {
+        if (!cursor.moveToNext()) {
+            return false;
+        }
+        row.setShortName(cursor.getString(shortNameIndex));
+        row.setDescription(cursor.getString(descriptionIndex));
+        if (cursor.isNull(startTimeIndex)) {
+            row.clearStartTime();
+        } else {
+            row.setStartTime(cursor.getLong(startTimeIndex));
+        }
+        if (cursor.isNull(durationIndex)) {
+            row.clearDurationHours();
+        } else {
+            row.setDurationHours(cursor.getInt(durationIndex));
+        }
+        row.setLocation(cursor.getString(locationIndex));
+        row.setStatus(TaskStatus.fromCode(cursor.getInt(statusIndex)));
+        return true;
+    }
+}
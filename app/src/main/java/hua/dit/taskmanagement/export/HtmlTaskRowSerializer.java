@@ -0,0 +1,92 @@
+package hua.dit.taskmanagement.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import hua.dit.taskmanagement.utils.DateFormats;
+
+// Writes rows as the styled HTML table of the original export
+public class HtmlTaskRowSerializer implements TaskRowSerializer {
+    private static final String HEADER = "<!DOCTYPE html>\n" +
+            "<html>\n<head>\n" +
+            "<meta charset=\"UTF-8\">\n" +
+            "<title>Incomplete Tasks</title>\n" +
+            "<style>\n" +
+            "body { font-family: Arial, sans-serif; margin: 20px; }\n" +
+            "table { border-collapse: collapse; width: 100%; }\n" +
+            "th, td { border: 1px solid #ddd; padding: 8px; text-align: left; }\n" +
+            "th { background-color: #f2f2f2; }\n" +
+            "tr:nth-child(even) { background-color: #f9f9f9; }\n" +
+            "</style>\n</head>\n<body>\n" +
+            "<h1>Incomplete Tasks</h1>\n" +
+            "<table>\n" +
+            "<tr><th>Name</th><th>Description</th><th>Start Time</th>" +
+            "<th>Duration (Hours)</th><th>Location</th><th>Status</th></tr>\n";
+
+    private static final String FOOTER = "</table>\n</body>\n</html>";
+
+    // Shared memoizing formatter, rows starting in the same minute reuse one string
+    private final DateFormats dateFormats = DateFormats.getDefault();
+
+    @Override
+    public String getMimeType() {
+        return "text/html";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "html";
+    }
+
+    @Override
+    public void writeHeader(Writer out) throws IOException {
+        out.write(HEADER);
+    }
+
+    @Override
+    public void writeRow(Writer out, TaskRow row) throws IOException {
+        out.write("<tr><td>");
+        writeEscaped(out, row.getShortName());
+        out.write("</td><td>");
+        writeEscaped(out, row.getDescription());
+        out.write("</td><td>");
+        if (row.hasStartTime()) {
+            out.write(dateFormats.formatExport(row.getStartTime()));
+        }
+        out.write("</td><td>");
+        out.write(row.hasDurationHours() ? Integer.toString(row.getDurationHours()) : "null");
+        out.write("</td><td>");
+        writeEscaped(out, row.getLocation());
+        out.write("</td><td>");
+        writeEscaped(out, row.getStatus().getLabel());
+        out.write("</td></tr>\n");
+    }
+
+    @Override
+    public void writeFooter(Writer out) throws IOException {
+        out.write(FOOTER);
+    }
+
+    // Writes a value with its special HTML characters escaped to prevent XSS attacks
+    // This is done by replacing for example < with its correspondent &lt which itself stands for less than.
+    static void writeEscaped(Writer out, String input) throws IOException {
+        if (input == null) return;
+        int start = 0;
+        for (int i = 0; i < input.length(); i++) {
+            String entity;
+            switch (input.charAt(i)) {
+                case '&': entity = "&amp;"; break;
+                case '<': entity = "&lt;"; break;
+                case '>': entity = "&gt;"; break;
+                case '"': entity = "&quot;"; break;
+                case '\'': entity = "&#039;"; break;
+                default: continue;
+            }
+            // Copy the unescaped run before the special character in one call
+            out.write(input, start, i - start);
+            out.write(entity);
+            start = i + 1;
+        }
+        out.write(input, start, input.length() - start);
+    }
+}
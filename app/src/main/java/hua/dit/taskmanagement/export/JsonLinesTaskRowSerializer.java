@@ -0,0 +1,83 @@
+package hua.dit.taskmanagement.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Writes rows as JSON Lines, one object per task
+// Missing values are written as null, the start time in epoch milliseconds and the status in its
+// string form
+public class JsonLinesTaskRowSerializer implements TaskRowSerializer {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    @Override
+    public String getMimeType() {
+        return "application/x-ndjson";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "jsonl";
+    }
+
+    @Override
+    public void writeHeader(Writer out) {
+        // JSON Lines has no header
+    }
+
+    @Override
+    public void writeRow(Writer out, TaskRow row) throws IOException {
+        out.write("{\"short_name\":");
+        writeString(out, row.getShortName());
+        out.write(",\"description\":");
+        writeString(out, row.getDescription());
+        out.write(",\"start_time\":");
+        out.write(row.hasStartTime() ? Long.toString(row.getStartTime()) : "null");
+        out.write(",\"duration_hours\":");
+        out.write(row.hasDurationHours() ? Integer.toString(row.getDurationHours()) : "null");
+        out.write(",\"location\":");
+        writeString(out, row.getLocation());
+        out.write(",\"status\":");
+        writeString(out, row.getStatus().getLabel());
+        out.write("}\n");
+    }
+
+    @Override
+    public void writeFooter(Writer out) {
+        // JSON Lines has no trailer
+    }
+
+    // Writes a JSON string literal, escaping quotes, backslashes and control characters
+    static void writeString(Writer out, String input) throws IOException {
+        if (input == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            // Copy the unescaped run before the special character in one call
+            out.write(input, start, i - start);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                case '\b': out.write("\\b"); break;
+                case '\f': out.write("\\f"); break;
+                default:
+                    out.write("\\u00");
+                    out.write(HEX_DIGITS[c >> 4]);
+                    out.write(HEX_DIGITS[c & 0xF]);
+                    break;
+            }
+            start = i + 1;
+        }
+        out.write(input, start, input.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,26 @@
+package hua.dit.taskmanagement.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Streams every row of a source through a serializer
+// Only one row is held at a time, so memory use does not grow with the number of rows
+public final class TaskExportEngine {
+    private TaskExportEngine() {
+    }
+
+    // Writes the whole document and returns the number of exported rows
+    // The writer is neither flushed nor closed
+    public static long export(TaskRowSource source, TaskRowSerializer serializer, Writer out)
+            throws IOException {
+        TaskRow row = new TaskRow();
+        long count = 0;
+        serializer.writeHeader(out);
+        while (source.next(row)) {
+            serializer.writeRow(out, row);
+            count++;
+        }
+        serializer.writeFooter(out);
+        return count;
+    }
+}
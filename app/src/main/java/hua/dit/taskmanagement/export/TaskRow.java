@@ -0,0 +1,86 @@
+package hua.dit.taskmanagement.export;
+
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+// One exported task row
+// A single instance is refilled for every row, so exports allocate nothing per row beyond the
+// column strings themselves
+public final class TaskRow {
+    private String shortName;
+    private String description;
+    private boolean hasStartTime;
+    private long startTime;
+    private boolean hasDurationHours;
+    private int durationHours;
+    private String location;
+    private TaskStatus status;
+
+    public String getShortName() {
+        return shortName;
+    }
+
+    public void setShortName(String shortName) {
+        this.shortName = shortName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    // Whether the task has a start time, getStartTime is only meaningful if it does
+    public boolean hasStartTime() {
+        return hasStartTime;
+    }
+
+    // Start time in epoch milliseconds
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+        this.hasStartTime = true;
+    }
+
+    public void clearStartTime() {
+        this.hasStartTime = false;
+    }
+
+    // Whether the task has a duration, getDurationHours is only meaningful if it does
+    public boolean hasDurationHours() {
+        return hasDurationHours;
+    }
+
+    public int getDurationHours() {
+        return durationHours;
+    }
+
+    public void setDurationHours(int durationHours) {
+        this.durationHours = durationHours;
+        this.hasDurationHours = true;
+    }
+
+    public void clearDurationHours() {
+        this.hasDurationHours = false;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,23 @@
+package hua.dit.taskmanagement.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Writes exported rows in one file format
+// An instance serves a single export and may keep per-export state such as a date formatter
+public interface TaskRowSerializer {
+    // MIME type of the produced file
+    String getMimeType();
+
+    // File name extension of the produced file, without the dot
+    String getFileExtension();
+
+    // Writes everything that precedes the first row
+    void writeHeader(Writer out) throws IOException;
+
+    // Writes one row
+    void writeRow(Writer out, TaskRow row) throws IOException;
+
+    // Writes everything that follows the last row
+    void writeFooter(Writer out) throws IOException;
+}
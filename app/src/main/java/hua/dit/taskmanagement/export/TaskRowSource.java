@@ -0,0 +1,9 @@
+package hua.dit.taskmanagement.export;
+
+import java.io.IOException;
+
+// Streaming source of exported rows
+public interface TaskRowSource {
+    // Fills the row with the next task and returns true, or returns false once exhausted
+    boolean next(TaskRow row) throws IOException;
+}
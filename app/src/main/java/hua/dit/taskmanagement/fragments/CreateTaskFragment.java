@@ -9,14 +9,14 @@ import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.fragment.app.Fragment;
-import java.text.SimpleDateFormat;
 
 import java.util.Date;
-import java.util.Locale;
 import hua.dit.taskmanagement.R;
 import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
 import hua.dit.taskmanagement.repositories.TaskRepository;
 import hua.dit.taskmanagement.repositories.TaskRepositoryManager;
+import hua.dit.taskmanagement.utils.DateFormats;
 
 // Fragment for creating new tasks with user input
 public class CreateTaskFragment extends Fragment implements TimePickerFragment.DateTimeSetListener {
@@ -35,9 +35,6 @@ public class CreateTaskFragment extends Fragment implements TimePickerFragment.D
     // Selected date/time for the task
     private Date selectedDateTime;
 
-    // Date formatter for displaying time
-    private SimpleDateFormat timeFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
-
     // Initialize fragment and repository
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -85,7 +82,7 @@ public class CreateTaskFragment extends Fragment implements TimePickerFragment.D
 
     // Updates the displayed time in the UI
     private void updateTimeDisplay() {
-        startTimeText.setText("Start Time: " + timeFormat.format(selectedDateTime));
+        startTimeText.setText("Start Time: " + DateFormats.getDefault().formatDisplay(selectedDateTime.getTime()));
     }
 
     // Validates input and creates a new task
@@ -123,7 +120,7 @@ public class CreateTaskFragment extends Fragment implements TimePickerFragment.D
 
         // Create and insert new task
         Task newTask = new Task(shortName, description, selectedDateTime, durationHours, location);
-        newTask.setStatus("recorded");
+        newTask.setStatus(TaskStatus.RECORDED);
 
         taskRepository.insertTask(newTask, new TaskRepository.OperationCallback() {
 
@@ -11,12 +11,12 @@ import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.fragment.app.Fragment;
-import java.text.SimpleDateFormat;
-import java.util.Locale;
 import hua.dit.taskmanagement.R;
 import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
 import hua.dit.taskmanagement.repositories.TaskRepository;
 import hua.dit.taskmanagement.repositories.TaskRepositoryManager;
+import hua.dit.taskmanagement.utils.DateFormats;
 
 // Fragment for displaying detailed information about a specific task
 public class TaskDetailsFragment extends Fragment {
@@ -35,9 +35,6 @@ public class TaskDetailsFragment extends Fragment {
     private Button completeButton;
     private View rootView;
 
-    // Date formatter for displaying time
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
-
     // Factory method to create new instances of this fragment
     public static TaskDetailsFragment newInstance(int taskId) {
         TaskDetailsFragment fragment = new TaskDetailsFragment();
@@ -97,7 +94,9 @@ public class TaskDetailsFragment extends Fragment {
                     taskIdView.setText("Task ID: " + task.getUid());
                     shortNameView.setText(task.getShortName());
                     descriptionView.setText(task.getDescription());
-                    startTimeView.setText("Start Time: " + dateFormat.format(task.getStartTime()));
+                    startTimeView.setText("Start Time: " + (task.getStartTime() != null
+                            ? DateFormats.getDefault().formatDisplay(task.getStartTime().getTime())
+                            : "No date set"));
                     durationView.setText("Duration: " + task.getDurationHours() + " hour(s)");
 
                     // Handle location display and map button visibility
@@ -110,10 +109,10 @@ public class TaskDetailsFragment extends Fragment {
                         viewMapButton.setVisibility(View.GONE);
                     }
 
-                    statusView.setText("Status: " + task.getStatus());
+                    statusView.setText("Status: " + task.getStatus().getLabel());
 
                     // Show/hide complete button based on task status
-                    if ("completed".equals(task.getStatus())) {
+                    if (task.getStatus() == TaskStatus.COMPLETED) {
                         completeButton.setVisibility(View.GONE);
                     } else {
                         completeButton.setVisibility(View.VISIBLE);
@@ -134,7 +133,7 @@ public class TaskDetailsFragment extends Fragment {
 
     // Updates task status to completed in the repository
     private void markTaskAsCompleted(int taskId) {
-        taskRepository.updateTaskStatus(taskId, "completed", new TaskRepository.OperationCallback() {
+        taskRepository.updateTaskStatus(taskId, TaskStatus.COMPLETED, new TaskRepository.OperationCallback() {
             @Override
             public void onSuccess(long rowsAffected) {
                 if (isAdded()) {
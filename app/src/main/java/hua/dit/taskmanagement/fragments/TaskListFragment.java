@@ -8,18 +8,24 @@ import android.view.ViewGroup;
 import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import java.io.File;
-import java.io.IOException;
 import java.util.List;
 import hua.dit.taskmanagement.R;
 import hua.dit.taskmanagement.adapters.TaskAdapter;
+import hua.dit.taskmanagement.adapters.TaskRowModel;
 import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.export.CsvTaskRowSerializer;
+import hua.dit.taskmanagement.export.HtmlTaskRowSerializer;
+import hua.dit.taskmanagement.export.JsonLinesTaskRowSerializer;
+import hua.dit.taskmanagement.export.TaskRowSerializer;
+import hua.dit.taskmanagement.repositories.TaskListQuery;
+import hua.dit.taskmanagement.repositories.TaskPageKey;
 import hua.dit.taskmanagement.repositories.TaskRepository;
 import hua.dit.taskmanagement.repositories.TaskRepositoryManager;
-import hua.dit.taskmanagement.utils.TaskExporter;
 
 // Fragment for displaying a list of tasks and handling task-related operations
 public class TaskListFragment extends Fragment {
@@ -29,9 +35,21 @@ public class TaskListFragment extends Fragment {
     // Adapter for the RecyclerView
     private TaskAdapter adapter;
 
+    // Number of rows from either end of the loaded window at which the next page is fetched
+    private static final int PREFETCH_DISTANCE = 10;
+    // Maximum number of tasks kept in the window
+    private static final int MAX_WINDOW_SIZE = TaskAdapter.PAGE_SIZE * TaskAdapter.MAX_PAGES;
+
     // Repository for database operations
     private TaskRepository taskRepository;
 
+    // Live window of displayed tasks, open while the view exists
+    private TaskListQuery<TaskRowModel> listQuery;
+    // Whether more tasks exist after the last displayed task
+    private boolean hasMoreAfter;
+    // Whether the lookup of the previous page is in flight
+    private boolean pageLoading;
+
     // Initialize fragment and repository
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -54,9 +72,26 @@ public class TaskListFragment extends Fragment {
         exportFab.setOnClickListener(v -> exportTasks());
 
         // Initialize and set up adapter
-        adapter = new TaskAdapter();
+        adapter = new TaskAdapter(new TaskRowModel.Factory(requireContext()));
         recyclerView.setAdapter(adapter);
 
+        // Fetch the neighbouring page as the user scrolls towards either end of the window
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView rv, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) rv.getLayoutManager();
+                if (layoutManager == null) {
+                    return;
+                }
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition()
+                        >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                } else if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+                    loadPreviousPage();
+                }
+            }
+        });
+
         // Set up click listener for viewing task details
         adapter.setOnTaskClickListener(task -> {
             TaskDetailsFragment detailsFragment = TaskDetailsFragment.newInstance(task.getUid());
@@ -70,31 +105,89 @@ public class TaskListFragment extends Fragment {
         // Set up long click listener for delete operation
         adapter.setOnTaskLongClickListener(this::showDeleteDialog);
 
-        // Load initial task data
-        loadTasks();
+        // Observe the task data
+        observeTasks();
         return view;
     }
 
-    // Loads non-completed tasks from repository and updates the adapter
-    private void loadTasks() {
-        if (isAdded() && getContext() != null) {
-            taskRepository.getNonCompletedTasksOrdered(new TaskRepository.DataCallback<List<Task>>() {
-                @Override
-                public void onDataLoaded(List<Task> tasks) {
-                    if (isAdded()) {
-                        adapter.setTasks(tasks);
-                    }
-                }
+    // Stops observing the tasks together with the view that shows them
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (listQuery != null) {
+            listQuery.close();
+            listQuery = null;
+        }
+        pageLoading = false;
+    }
 
-                @Override
-                public void onError(String error) {
-                    if (isAdded()) {
-                        Toast.makeText(requireContext(),
-                                "Error loading tasks: " + error,
-                                Toast.LENGTH_SHORT).show();
-                    }
+    // Observes the first page of non-completed tasks
+    // Changes from any writer, e.g. a delete, the status worker or the ContentProvider, reach the
+    // adapter as a change set computed off the main thread, with rows already formatted
+    private void observeTasks() {
+        listQuery = taskRepository.observeNonCompletedTasks(null, TaskAdapter.PAGE_SIZE,
+                adapter.getRowFactory()::create, new TaskListQuery.Observer<TaskRowModel>() {
+            @Override
+            public void onChanged(List<TaskRowModel> rows, DiffUtil.DiffResult changes, int limit) {
+                hasMoreAfter = rows.size() >= limit;
+                adapter.submitRows(rows, changes);
+            }
+
+            @Override
+            public void onError(String error) {
+                showLoadError(error);
+            }
+        });
+    }
+
+    // Extends the window by the page that follows it, dropping its first page when the window is full
+    private void loadNextPage() {
+        if (!hasMoreAfter || listQuery.isWindowPending()) {
+            return;
+        }
+        int limit = listQuery.getLimit();
+        if (limit < MAX_WINDOW_SIZE) {
+            listQuery.setWindow(listQuery.getFrom(), limit + TaskAdapter.PAGE_SIZE);
+        } else {
+            listQuery.setWindow(adapter.getKeyAt(TaskAdapter.PAGE_SIZE), limit);
+        }
+    }
+
+    // Extends the window by the page that precedes it, dropping its last page when the window is full
+    private void loadPreviousPage() {
+        TaskPageKey from = listQuery.getFrom();
+        if (pageLoading || from == null || listQuery.isWindowPending()) {
+            return;
+        }
+        pageLoading = true;
+        // Find the key of the first task of the previous page, then move the window there
+        taskRepository.getNonCompletedTasksPageBefore(from, TaskAdapter.PAGE_SIZE,
+                new TaskRepository.DataCallback<List<Task>>() {
+            @Override
+            public void onDataLoaded(List<Task> page) {
+                pageLoading = false;
+                if (listQuery == null) {
+                    return;
                 }
-            });
+                TaskPageKey newFrom = page.size() < TaskAdapter.PAGE_SIZE ? null : TaskPageKey.of(page.get(0));
+                listQuery.setWindow(newFrom,
+                        Math.min(listQuery.getLimit() + TaskAdapter.PAGE_SIZE, MAX_WINDOW_SIZE));
+            }
+
+            @Override
+            public void onError(String error) {
+                pageLoading = false;
+                showLoadError(error);
+            }
+        });
+    }
+
+    // Reports a failed load of the list
+    private void showLoadError(String error) {
+        if (isAdded()) {
+            Toast.makeText(requireContext(),
+                    "Error loading tasks: " + error,
+                    Toast.LENGTH_SHORT).show();
         }
     }
 
@@ -118,7 +211,6 @@ public class TaskListFragment extends Fragment {
                 if (isAdded()) {
                     showResultDialog("Task Deleted",
                             "Successfully deleted task. Rows affected: " + rowsAffected);
-                    loadTasks();
                 }
             }
 
@@ -142,37 +234,54 @@ public class TaskListFragment extends Fragment {
         }
     }
 
-    // Exports non-completed tasks to HTML file
+    // Asks for an export format, then exports non-completed tasks in it
     private void exportTasks() {
         Log.d(TAG, "exportTasks called");
-        taskRepository.getNonCompletedTasks(new TaskRepository.DataCallback<List<Task>>() {
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Export format")
+                .setItems(new String[]{"HTML", "CSV", "JSON Lines"}, (dialog, which) -> {
+                    switch (which) {
+                        case 1:
+                            exportTasks(new CsvTaskRowSerializer());
+                            break;
+                        case 2:
+                            exportTasks(new JsonLinesTaskRowSerializer());
+                            break;
+                        default:
+                            exportTasks(new HtmlTaskRowSerializer());
+                            break;
+                    }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // Exports non-completed tasks in the given format
+    // The export streams rows from the database on the repository's executor
+    private void exportTasks(TaskRowSerializer serializer) {
+        taskRepository.exportNonCompletedTasks(requireContext().getApplicationContext(), serializer,
+                new TaskRepository.DataCallback<File>() {
             @Override
-            public void onDataLoaded(List<Task> tasks) {
-                Log.d(TAG, "Tasks loaded, count: " + (tasks != null ? tasks.size() : 0));
-                try {
-                    // Export tasks to HTML file
-                    File htmlFile = TaskExporter.exportTasksToHtml(requireContext(), tasks);
-
-                    // Show success message
-                    String message = String.format("Tasks exported to Downloads:\n%s",
-                            htmlFile.getName());
-                    Log.d(TAG, "Export successful: " + message);
-                    Toast.makeText(requireContext(), message, Toast.LENGTH_LONG).show();
-                } catch (IOException e) {
-                    // Handle export failure
-                    Log.e(TAG, "Export failed", e);
-                    Toast.makeText(requireContext(),
-                            "Failed to export tasks: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
+            public void onDataLoaded(File exportFile) {
+                if (!isAdded()) {
+                    return;
                 }
+                // Show success message
+                String message = String.format("Tasks exported to Downloads:\n%s",
+                        exportFile.getName());
+                Log.d(TAG, "Export successful: " + message);
+                Toast.makeText(requireContext(), message, Toast.LENGTH_LONG).show();
             }
 
             @Override
             public void onError(String error) {
-                Log.e(TAG, "Failed to load tasks: " + error);
-                Toast.makeText(requireContext(),
-                        "Failed to load tasks: " + error,
-                        Toast.LENGTH_SHORT).show();
+                // Handle export failure
+                Log.e(TAG, "Export failed: " + error);
+                if (isAdded()) {
+                    Toast.makeText(requireContext(),
+                            "Failed to export tasks: " + error,
+                            Toast.LENGTH_SHORT).show();
+                }
             }
         });
     }
@@ -1,11 +1,14 @@
 package hua.dit.taskmanagement.fragments;
 
+import android.content.ContentResolver;
 import android.content.ContentValues;
+import android.content.pm.ApplicationInfo;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,19 +16,27 @@ import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.fragment.app.Fragment;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import hua.dit.taskmanagement.R;
 import hua.dit.taskmanagement.provider.TaskContentProvider;
+import hua.dit.taskmanagement.utils.DateFormats;
+import hua.dit.taskmanagement.workload.TaskTrafficReplayer;
+import hua.dit.taskmanagement.workload.TaskWorkload;
+import hua.dit.taskmanagement.workload.TaskWorkloadLoader;
 
 
 //Fragment class for testing ContentProvider operations
 //Provides UI controls for CRUD operations on tasks
 public class TestProviderFragment extends Fragment {
+    // Workload generated by the debug button: tasks loaded, then traffic replayed over them
+    private static final long WORKLOAD_SEED = 42;
+    private static final int WORKLOAD_TASKS = 10_000;
+    private static final int WORKLOAD_BATCH_SIZE = 500;
+    private static final int WORKLOAD_OPERATIONS = 1_000;
+    private static final double WORKLOAD_OPERATIONS_PER_SECOND = 200;
+
     // TextView to display operation results
     private TextView resultText;
     // Tracks the ID of the last inserted task
@@ -34,6 +45,8 @@ public class TestProviderFragment extends Fragment {
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
     // Handler for posting updates to the main thread
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Traffic replay of a running workload, cancelled with the fragment
+    private volatile TaskTrafficReplayer replayer;
 
     // Inflates the fragment layout and initializes UI components
     @Override
@@ -50,6 +63,7 @@ public class TestProviderFragment extends Fragment {
         Button updateButton = view.findViewById(R.id.update_button);
         Button deleteButton = view.findViewById(R.id.delete_button);
         Button queryByIdButton = view.findViewById(R.id.query_by_id_button);
+        Button workloadButton = view.findViewById(R.id.workload_button);
 
         // Set click listeners for all buttons
         insertButton.setOnClickListener(v -> executeInBackground(this::insertTestTask));
@@ -57,6 +71,12 @@ public class TestProviderFragment extends Fragment {
         updateButton.setOnClickListener(v -> executeInBackground(this::updateLastTask));
         deleteButton.setOnClickListener(v -> executeInBackground(this::deleteLastTask));
         queryByIdButton.setOnClickListener(v -> executeInBackground(this::queryLastInsertedTask));
+        workloadButton.setOnClickListener(v -> executeInBackground(this::runWorkload));
+
+        // The workload writes thousands of rows, so it is only offered in debuggable builds
+        boolean debuggable = (requireContext().getApplicationInfo().flags
+                & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        workloadButton.setVisibility(debuggable ? View.VISIBLE : View.GONE);
 
         return view;
     }
@@ -93,8 +113,7 @@ public class TestProviderFragment extends Fragment {
             values.put("description", "This is a test task created via content provider");
 
             // Format current date-time for the task
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-            values.put("start_time", dateFormat.format(new Date()));
+            values.put("start_time", DateFormats.getDefault().formatProvider(System.currentTimeMillis()));
 
             values.put("duration_hours", 2);
             values.put("location", "Test Location");
@@ -117,6 +136,56 @@ public class TestProviderFragment extends Fragment {
     }
 
 
+    // Loads a seeded workload through the ContentProvider, then replays mixed read, update and
+    // delete traffic over the loaded tasks at a fixed rate and shows the measurements
+    private void runWorkload() {
+        try {
+            ContentResolver resolver = requireContext().getContentResolver();
+            updateUI("Loading " + WORKLOAD_TASKS + " tasks...");
+            TaskWorkload workload = TaskWorkload.builder().seed(WORKLOAD_SEED).build();
+            // Uids only grow, so the loaded tasks are the ones above the current highest uid
+            int firstUid = queryMaxUid(resolver) + 1;
+            long loadStart = SystemClock.elapsedRealtime();
+            int inserted = TaskWorkloadLoader.loadThroughProvider(
+                    resolver, workload, WORKLOAD_TASKS, WORKLOAD_BATCH_SIZE);
+            long loadMillis = SystemClock.elapsedRealtime() - loadStart;
+
+            // Traffic only targets the tasks just loaded, never the user's own tasks
+            int lastUid = queryMaxUid(resolver);
+            if (inserted == 0 || lastUid < firstUid) {
+                updateUI("Workload loaded no tasks");
+                return;
+            }
+
+            updateUI("Loaded " + inserted + " tasks in " + loadMillis + " ms\n" +
+                    "Replaying " + WORKLOAD_OPERATIONS + " operations...");
+            replayer = new TaskTrafficReplayer(TaskTrafficReplayer.providerTarget(resolver),
+                    WORKLOAD_SEED, 80, 15, 5);
+            TaskTrafficReplayer.Result result = replayer.replay(
+                    firstUid, lastUid, WORKLOAD_OPERATIONS, WORKLOAD_OPERATIONS_PER_SECOND);
+            replayer = null;
+            updateUI("Loaded " + inserted + " tasks in " + loadMillis + " ms\n" +
+                    "Replayed traffic: " + result);
+        } catch (Exception e) {
+            e.printStackTrace();
+            showToast("Error running workload: " + e.getMessage());
+            updateUI("Error running workload: " + e.getMessage());
+        }
+    }
+
+    // Returns the highest task uid, or 0 if there are no tasks
+    private static int queryMaxUid(ContentResolver resolver) {
+        Uri lastTaskUri = TaskContentProvider.CONTENT_URI.buildUpon()
+                .appendQueryParameter(TaskContentProvider.QUERY_PARAMETER_LIMIT, "1")
+                .build();
+        try (Cursor cursor = resolver.query(lastTaskUri, new String[]{"uid"}, null, null, "uid DESC")) {
+            if (cursor != null && cursor.moveToFirst()) {
+                return cursor.getInt(0);
+            }
+        }
+        return 0;
+    }
+
     // Queries and displays all tasks in the database
     private void queryTasks() {
         try {
@@ -293,6 +362,10 @@ public class TestProviderFragment extends Fragment {
     @Override
     public void onDestroy() {
         super.onDestroy();
+        TaskTrafficReplayer running = replayer;
+        if (running != null) {
+            running.cancel();
+        }
         executor.shutdown();
     }
 }
\ No newline at end of file
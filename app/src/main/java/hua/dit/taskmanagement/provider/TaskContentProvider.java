@@ -1,19 +1,27 @@
 package hua.dit.taskmanagement.provider;
 
 import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentUris;
 import android.content.ContentValues;
+import android.content.OperationApplicationException;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.net.Uri;
-import androidx.room.Room;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.Locale;
+import java.util.List;
 
+import hua.dit.taskmanagement.dao.TaskSearch;
 import hua.dit.taskmanagement.database.TaskDatabase;
 import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+import hua.dit.taskmanagement.utils.DateFormats;
+import hua.dit.taskmanagement.utils.TaskTransitionIndex;
 
 //ContentProvider implementation for Task entities
 //Provides CRUD operations for tasks through a content provider interface
@@ -26,9 +34,21 @@ public class TaskContentProvider extends ContentProvider {
     private static final String PATH = "tasks";
     public static final Uri CONTENT_URI = Uri.parse("content://" + AUTHORITY + "/" + PATH);
 
+    // Query parameters limiting the rows returned by query, e.g. tasks?limit=20&offset=40
+    public static final String QUERY_PARAMETER_LIMIT = "limit";
+    public static final String QUERY_PARAMETER_OFFSET = "offset";
+
+    // Full-text search over short name, description and location, best match first,
+    // e.g. tasks/search?q=meet+lib&limit=20; every word matches as a prefix
+    public static final Uri SEARCH_URI = Uri.withAppendedPath(CONTENT_URI, "search");
+    public static final String QUERY_PARAMETER_SEARCH = "q";
+    // Most ranked matches a search may reach, counting the rows skipped by its offset
+    public static final int MAX_SEARCH_RESULTS = 1000;
+
     // URI matcher codes for different types of requests
     private static final int TASKS = 1; // Code for operations on all tasks
     private static final int TASK_ID = 2; // Code for operations on a specific task
+    private static final int SEARCH = 3; // Code for full-text search over tasks
 
     // URI matcher for determining the type of request
     private static final UriMatcher uriMatcher = new UriMatcher(UriMatcher.NO_MATCH);
@@ -36,19 +56,25 @@ public class TaskContentProvider extends ContentProvider {
         // Register URI patterns with their corresponding codes
         uriMatcher.addURI(AUTHORITY, PATH, TASKS);
         uriMatcher.addURI(AUTHORITY, PATH + "/#", TASK_ID);
+        uriMatcher.addURI(AUTHORITY, PATH + "/search", SEARCH);
     }
 
     // Database instance
     private TaskDatabase db;
 
+    // Index of upcoming status transitions, told about every write
+    private TaskTransitionIndex transitionIndex;
+
+    // Change state of the batch running on the current thread:
+    // null outside applyBatch, FALSE inside a batch with no changes yet, TRUE once a change was made
+    private final ThreadLocal<Boolean> batchChanges = new ThreadLocal<>();
+
     // Initializes the content provider
     @Override
     public boolean onCreate() {
-        // Initialize Room database
-        db = Room.databaseBuilder(getContext(),
-                        TaskDatabase.class,
-                        "task_database")
-                .build();
+        // Use the process-wide Room database shared with the repository
+        db = TaskDatabase.getInstance(getContext());
+        transitionIndex = TaskTransitionIndex.getInstance(getContext());
         return true;
     }
 
@@ -61,33 +87,16 @@ public class TaskContentProvider extends ContentProvider {
         }
 
         // Create new Task object from ContentValues
-        Task task = new Task();
-        task.setShortName(values.getAsString("short_name"));
-        task.setDescription(values.getAsString("description"));
-
-        // Parse and set the start time if provided
-        String startTimeStr = values.getAsString("start_time");
-        if (startTimeStr != null) {
-            try {
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-                Date startTime = dateFormat.parse(startTimeStr);
-                task.setStartTime(startTime);
-            } catch (ParseException e) {
-                throw new IllegalArgumentException("Invalid date format. Use yyyy-MM-dd HH:mm:ss");
-            }
-        }
-
-        // Set remaining task properties
-        task.setDurationHours(values.getAsInteger("duration_hours"));
-        task.setLocation(values.getAsString("location"));
-        task.setStatus(values.getAsString("status"));
+        Task task = taskFromValues(values);
 
         try {
             // Insert task and get generated ID
             long id = db.taskDao().insert(task);
             if (id > 0) {
+                task.setUid((int) id);
+                transitionIndex.track(task);
                 Uri itemUri = ContentUris.withAppendedId(uri, id);
-                getContext().getContentResolver().notifyChange(itemUri, null);
+                notifyChange(itemUri);
                 return itemUri;
             }
             throw new android.database.SQLException("Failed to insert row into " + uri);
@@ -96,33 +105,122 @@ public class TaskContentProvider extends ContentProvider {
         }
     }
 
+    // Handles insertion of many tasks in a single transaction with one change notification
+    @Override
+    public int bulkInsert(@NonNull Uri uri, @NonNull ContentValues[] values) {
+        // Verify that the URI is valid for insertion
+        if (uriMatcher.match(uri) != TASKS) {
+            throw new IllegalArgumentException("Unknown URI: " + uri);
+        }
+
+        // Build every task first so that an invalid row rejects the whole batch
+        List<Task> tasks = new ArrayList<>(values.length);
+        for (ContentValues taskValues : values) {
+            tasks.add(taskFromValues(taskValues));
+        }
+
+        try {
+            long[] ids = db.taskDao().insertAll(tasks);
+            for (int i = 0; i < ids.length; i++) {
+                tasks.get(i).setUid((int) ids[i]);
+                transitionIndex.track(tasks.get(i));
+            }
+            if (ids.length > 0) {
+                notifyChange(uri);
+            }
+            return ids.length;
+        } catch (Exception e) {
+            throw new android.database.SQLException("Error inserting rows: " + e.getMessage());
+        }
+    }
+
+    // Applies a batch of operations in a single transaction
+    // Changes made by the operations are coalesced into one notification on the tasks URI
+    @NonNull
+    @Override
+    public ContentProviderResult[] applyBatch(@NonNull ArrayList<ContentProviderOperation> operations)
+            throws OperationApplicationException {
+        batchChanges.set(Boolean.FALSE);
+        try {
+            ContentProviderResult[] results =
+                    db.runInTransaction(() -> super.applyBatch(operations));
+            if (Boolean.TRUE.equals(batchChanges.get())) {
+                getContext().getContentResolver().notifyChange(CONTENT_URI, null);
+            }
+            return results;
+        } catch (RuntimeException | OperationApplicationException e) {
+            // The transaction rolled back, drop whatever the operations reported to the index
+            if (Boolean.TRUE.equals(batchChanges.get())) {
+                transitionIndex.buildAsync();
+            }
+            throw e;
+        } finally {
+            batchChanges.remove();
+        }
+    }
+
     // Handles querying tasks
     @Override
     public Cursor query(Uri uri, String[] projection, String selection,
                         String[] selectionArgs, String sortOrder) {
+        // Validate the client arguments before touching the database
+        TaskQueryBuilder builder = buildQuery(uri, projection, selection, selectionArgs, sortOrder);
+        boolean search = uriMatcher.match(uri) == SEARCH;
+        // Any change to any task may change search results
+        Uri notificationUri = search ? CONTENT_URI : uri;
+
         try {
-            Cursor cursor;
-            // Determine query type based on URI
-            switch (uriMatcher.match(uri)) {
-                case TASKS:
-                    // Query all tasks
-                    cursor = db.taskDao().getAllTasksCursor();
-                    break;
-                case TASK_ID:
-                    // Query specific task by ID
-                    cursor = db.taskDao().getTaskByIdCursor(ContentUris.parseId(uri));
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unknown URI: " + uri);
+            if (search) {
+                // Rank enough matches to fill the requested page, then read just those rows
+                int window = builder.searchWindow(TaskSearch.DEFAULT_LIMIT, MAX_SEARCH_RESULTS);
+                builder.whereUidIn(TaskSearch.rankedUids(db.taskDao(),
+                        uri.getQueryParameter(QUERY_PARAMETER_SEARCH), window));
             }
+            // Only the requested columns and rows are read from SQLite
+            Cursor cursor = db.query(new SimpleSQLiteQuery(builder.getSql(), builder.getArguments()));
             // Register cursor for URI notifications
-            cursor.setNotificationUri(getContext().getContentResolver(), uri);
+            cursor.setNotificationUri(getContext().getContentResolver(), notificationUri);
             return cursor;
         } catch (Exception e) {
             throw new android.database.SQLException("Error querying database: " + e.getMessage());
         }
     }
 
+    // Validates the arguments of a query and builds its SQL
+    // For a search URI the ranked uids still have to be added with whereUidIn
+    // Throws IllegalArgumentException for an unknown URI or invalid arguments
+    static TaskQueryBuilder buildQuery(Uri uri, String[] projection, String selection,
+                                       String[] selectionArgs, String sortOrder) {
+        TaskQueryBuilder builder = new TaskQueryBuilder()
+                .projection(projection)
+                .selection(selection, selectionArgs)
+                .sortOrder(sortOrder)
+                .limit(uri.getQueryParameter(QUERY_PARAMETER_LIMIT),
+                        uri.getQueryParameter(QUERY_PARAMETER_OFFSET));
+        // Determine query type based on URI
+        switch (uriMatcher.match(uri)) {
+            case TASKS:
+                break;
+            case TASK_ID:
+                // Restrict the query to the task in the URI
+                builder.whereUid(ContentUris.parseId(uri));
+                break;
+            case SEARCH:
+                String text = uri.getQueryParameter(QUERY_PARAMETER_SEARCH);
+                if (text == null) {
+                    throw new IllegalArgumentException("Missing search parameter: " + QUERY_PARAMETER_SEARCH);
+                }
+                // Rejects a text with too many words
+                TaskSearch.matchExpression(text);
+                // Rejects a page beyond the most ranked matches
+                builder.searchWindow(TaskSearch.DEFAULT_LIMIT, MAX_SEARCH_RESULTS);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown URI: " + uri);
+        }
+        return builder;
+    }
+
     // Handles updating existing tasks
     @Override
     public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
@@ -144,7 +242,7 @@ public class TaskContentProvider extends ContentProvider {
                         existingTask.setDescription(values.getAsString("description"));
                     }
                     if (values.containsKey("status")) {
-                        existingTask.setStatus(values.getAsString("status"));
+                        existingTask.setStatus(parseStatus(values.get("status")));
                     }
                     if (values.containsKey("location")) {
                         existingTask.setLocation(values.getAsString("location"));
@@ -153,7 +251,8 @@ public class TaskContentProvider extends ContentProvider {
                     // Perform update and notify observers
                     int count = db.taskDao().update(existingTask);
                     if (count > 0) {
-                        getContext().getContentResolver().notifyChange(uri, null);
+                        transitionIndex.track(existingTask);
+                        notifyChange(uri);
                     }
                     return count;
                 default:
@@ -171,9 +270,11 @@ public class TaskContentProvider extends ContentProvider {
             switch (uriMatcher.match(uri)) {
                 case TASK_ID:
                     // Delete task by ID and notify observers if successful
-                    int count = db.taskDao().deleteById(ContentUris.parseId(uri));
+                    long taskId = ContentUris.parseId(uri);
+                    int count = db.taskDao().deleteById(taskId);
                     if (count > 0) {
-                        getContext().getContentResolver().notifyChange(uri, null);
+                        transitionIndex.untrack((int) taskId);
+                        notifyChange(uri);
                     }
                     return count;
                 default:
@@ -184,11 +285,60 @@ public class TaskContentProvider extends ContentProvider {
         }
     }
 
+    // Notifies observers of a change, or defers it to the end of the running batch
+    private void notifyChange(Uri uri) {
+        if (batchChanges.get() != null) {
+            batchChanges.set(Boolean.TRUE);
+            return;
+        }
+        getContext().getContentResolver().notifyChange(uri, null);
+    }
+
+    // Creates a new Task object from the values supplied by a client
+    private static Task taskFromValues(ContentValues values) {
+        Task task = new Task();
+        task.setShortName(values.getAsString("short_name"));
+        task.setDescription(values.getAsString("description"));
+
+        // Parse and set the start time if provided
+        String startTimeStr = values.getAsString("start_time");
+        if (startTimeStr != null) {
+            task.setStartTime(new Date(DateFormats.getDefault().parseProvider(startTimeStr)));
+        }
+
+        // Set remaining task properties
+        task.setDurationHours(values.getAsInteger("duration_hours"));
+        task.setLocation(values.getAsString("location"));
+        task.setStatus(parseStatus(values.get("status")));
+        return task;
+    }
+
+    // Parses a status value supplied by a client
+    // Accepts the legacy string form ("recorded", "in-progress", ...) as well as the integer code
+    // A missing status defaults to recorded. Before statuses were coded, clients could store any
+    // string; unknown values are still accepted and become recorded, as MIGRATION_2_3 did for
+    // the strings already stored
+    private static TaskStatus parseStatus(Object value) {
+        if (value == null) {
+            return TaskStatus.RECORDED;
+        }
+        try {
+            if (value instanceof Number) {
+                return TaskStatus.fromCode(((Number) value).intValue());
+            }
+            return TaskStatus.fromLabel(value.toString());
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Unknown status " + value + ", storing it as recorded");
+            return TaskStatus.RECORDED;
+        }
+    }
+
     // Returns MIME type for tasks
     @Override
     public String getType(Uri uri) {
         switch (uriMatcher.match(uri)) {
             case TASKS:
+            case SEARCH:
                 // MIME type for multiple tasks
                 return "vnd.android.cursor.dir/vnd." + AUTHORITY + "." + PATH;
             case TASK_ID:
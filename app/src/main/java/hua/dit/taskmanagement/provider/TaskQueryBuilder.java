@@ -0,0 +1,437 @@
+package hua.dit.taskmanagement.provider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import hua.dit.taskmanagement.dao.TaskDao;
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+// Builds the SQL behind TaskContentProvider.query from the arguments supplied by a client
+// Projection, selection and sort order are validated against an allow-list of columns so
+// that only the requested columns and rows are read and copied across IPC
+final class TaskQueryBuilder {
+    // Columns clients may project, filter and sort on, mapped to their SQL expressions
+    // The status is exposed in its legacy string form
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+    static {
+        COLUMNS.put("uid", "uid");
+        COLUMNS.put("short_name", "short_name");
+        COLUMNS.put("description", "description");
+        COLUMNS.put("start_time", "start_time");
+        COLUMNS.put("duration_hours", "duration_hours");
+        COLUMNS.put("location", "location");
+        COLUMNS.put("status", "(" + TaskDao.STATUS_LABEL + ")");
+    }
+
+    // Status column compared directly against codes, see rewriteSelection
+    private static final String STATUS_COLUMN = "status";
+    private static final Set<String> STATUS_EQUALITY_OPERATORS = new HashSet<>(Arrays.asList(
+            "=", "==", "!=", "<>"));
+    private static final int UNKNOWN_STATUS_CODE = -1;
+
+    // Keywords and functions allowed inside a selection
+    private static final Set<String> SELECTION_KEYWORDS = new HashSet<>(Arrays.asList(
+            "AND", "OR", "NOT", "IS", "NULL", "IN", "LIKE", "GLOB", "BETWEEN", "ESCAPE",
+            "COLLATE", "NOCASE", "LOWER", "UPPER", "LENGTH", "IFNULL", "COALESCE"));
+
+    // Operators allowed inside a selection, two-character operators first
+    private static final String[] SELECTION_OPERATORS = {
+            "<=", ">=", "!=", "<>", "==", "||",
+            "=", "<", ">", "(", ")", ",", "+", "-", "*", "/", "%"};
+
+    private final List<String> columns = new ArrayList<>();
+    private String selection;
+    private final List<Object> arguments = new ArrayList<>();
+    private String orderBy;
+    private Integer limit;
+    private Integer offset;
+
+    // Sets the projection; a null projection selects every column
+    TaskQueryBuilder projection(String[] projection) {
+        columns.clear();
+        if (projection == null || projection.length == 0) {
+            for (Map.Entry<String, String> column : COLUMNS.entrySet()) {
+                columns.add(selectColumn(column.getKey(), column.getValue()));
+            }
+            return this;
+        }
+        for (String name : projection) {
+            columns.add(selectColumn(name, columnExpression(name)));
+        }
+        return this;
+    }
+
+    // Adds a client selection with its arguments
+    TaskQueryBuilder selection(String clientSelection, String[] selectionArgs) {
+        if (clientSelection == null || clientSelection.trim().isEmpty()) {
+            if (selectionArgs != null && selectionArgs.length > 0) {
+                throw new IllegalArgumentException("Selection arguments without a selection");
+            }
+            return this;
+        }
+        Set<Integer> statusArguments = new HashSet<>();
+        List<String> tokens = rewriteSelection(tokenizeSelection(clientSelection), statusArguments);
+        // Placeholders are counted on the emitted tokens, a '?' inside a literal is not one
+        int placeholders = 0;
+        for (String token : tokens) {
+            if (token.equals("?")) {
+                placeholders++;
+            }
+        }
+        int argumentCount = selectionArgs != null ? selectionArgs.length : 0;
+        if (placeholders != argumentCount) {
+            throw new IllegalArgumentException("Selection has " + placeholders +
+                    " placeholders but " + argumentCount + " arguments were supplied");
+        }
+        appendSelection(String.join(" ", tokens));
+        for (int i = 0; i < argumentCount; i++) {
+            String argument = selectionArgs[i];
+            // Labels compared against the raw status column are bound as their codes
+            arguments.add(statusArguments.contains(i) && argument != null
+                    ? (Object) statusCode(argument) : argument);
+        }
+        return this;
+    }
+
+    // Restricts the query to a single task
+    TaskQueryBuilder whereUid(long uid) {
+        appendSelection("uid = ?");
+        arguments.add(uid);
+        return this;
+    }
+
+    // Restricts the query to the given tasks, ranked search results best first
+    // Unless the client sets a sort order, rows come back in the order of the array
+    TaskQueryBuilder whereUidIn(int[] uids) {
+        StringBuilder list = new StringBuilder();
+        StringBuilder rankOrder = new StringBuilder("CASE uid");
+        for (int i = 0; i < uids.length; i++) {
+            if (i > 0) {
+                list.append(", ");
+            }
+            list.append(uids[i]);
+            rankOrder.append(" WHEN ").append(uids[i]).append(" THEN ").append(i);
+        }
+        appendSelection("uid IN (" + list + ")");
+        if (orderBy == null && uids.length > 0) {
+            orderBy = rankOrder.append(" END").toString();
+        }
+        return this;
+    }
+
+    // Sets the sort order, a comma separated list of "column [ASC|DESC]" terms
+    TaskQueryBuilder sortOrder(String sortOrder) {
+        if (sortOrder == null || sortOrder.trim().isEmpty()) {
+            orderBy = null;
+            return this;
+        }
+        StringBuilder sql = new StringBuilder();
+        for (String term : sortOrder.split(",", -1)) {
+            String[] parts = term.trim().split("\\s+");
+            if (parts.length == 0 || parts.length > 2 || parts[0].isEmpty()) {
+                throw new IllegalArgumentException("Invalid sort order: " + sortOrder);
+            }
+            if (sql.length() > 0) {
+                sql.append(", ");
+            }
+            sql.append(columnExpression(parts[0]));
+            if (parts.length == 2) {
+                String direction = parts[1].toUpperCase(Locale.ROOT);
+                if (!direction.equals("ASC") && !direction.equals("DESC")) {
+                    throw new IllegalArgumentException("Invalid sort direction: " + parts[1]);
+                }
+                sql.append(' ').append(direction);
+            }
+        }
+        orderBy = sql.toString();
+        return this;
+    }
+
+    // Sets the maximum number of rows and the number of rows to skip, either may be null
+    TaskQueryBuilder limit(String limitValue, String offsetValue) {
+        limit = parseNonNegative("limit", limitValue);
+        offset = parseNonNegative("offset", offsetValue);
+        return this;
+    }
+
+    String getSql() {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(String.join(", ", columns)).append(" FROM tasks");
+        if (selection != null) {
+            sql.append(" WHERE ").append(selection);
+        }
+        if (orderBy != null) {
+            sql.append(" ORDER BY ").append(orderBy);
+        }
+        if (limit != null || offset != null) {
+            // SQLite only accepts OFFSET after a LIMIT; -1 means no limit
+            sql.append(" LIMIT ").append(limit != null ? limit : -1);
+            if (offset != null) {
+                sql.append(" OFFSET ").append(offset);
+            }
+        }
+        return sql.toString();
+    }
+
+    Object[] getArguments() {
+        return arguments.toArray();
+    }
+
+    // Row limit and offset set by the client, null when not set
+    Integer getLimit() {
+        return limit;
+    }
+
+    Integer getOffset() {
+        return offset;
+    }
+
+    // Number of ranked matches a search needs to fill its page: the rows skipped by the offset
+    // plus the limit, or the default limit when the client sets none
+    // Throws IllegalArgumentException if that exceeds maxResults
+    int searchWindow(int defaultLimit, int maxResults) {
+        long window = (long) (limit != null ? limit : defaultLimit) + (offset != null ? offset : 0);
+        if (window > maxResults) {
+            throw new IllegalArgumentException("Search limit plus offset exceeds " + maxResults +
+                    ": " + window);
+        }
+        return (int) window;
+    }
+
+    // Returns the SQL expression of an allowed column
+    private static String columnExpression(String name) {
+        String expression = name != null ? COLUMNS.get(name) : null;
+        if (expression == null) {
+            throw new IllegalArgumentException("Unknown column: " + name);
+        }
+        return expression;
+    }
+
+    private static String selectColumn(String name, String expression) {
+        return expression.equals(name) ? name : expression + " AS " + name;
+    }
+
+    // Appends a condition to the WHERE clause
+    private void appendSelection(String condition) {
+        selection = selection == null ? "(" + condition + ")" : selection + " AND (" + condition + ")";
+    }
+
+    // Splits a client selection into tokens: literals, placeholders, numbers, words and operators
+    // Anything that is not a known column, keyword, literal, placeholder or operator is rejected,
+    // which also rules out statement separators, comments and quoted identifiers
+    private static List<String> tokenizeSelection(String clientSelection) {
+        List<String> tokens = new ArrayList<>();
+        int length = clientSelection.length();
+        int i = 0;
+        while (i < length) {
+            char c = clientSelection.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'') {
+                // String literal, '' escapes a quote
+                int end = i + 1;
+                while (true) {
+                    if (end >= length) {
+                        throw new IllegalArgumentException("Unterminated string in selection");
+                    }
+                    if (clientSelection.charAt(end) == '\'') {
+                        if (end + 1 < length && clientSelection.charAt(end + 1) == '\'') {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                tokens.add(clientSelection.substring(i, end + 1));
+                i = end + 1;
+            } else if (c == '?') {
+                tokens.add("?");
+                i++;
+            } else if (Character.isDigit(c)) {
+                int end = i;
+                while (end < length && (Character.isDigit(clientSelection.charAt(end))
+                        || clientSelection.charAt(end) == '.')) {
+                    end++;
+                }
+                tokens.add(clientSelection.substring(i, end));
+                i = end;
+            } else if (Character.isLetter(c) || c == '_') {
+                int end = i;
+                while (end < length && (Character.isLetterOrDigit(clientSelection.charAt(end))
+                        || clientSelection.charAt(end) == '_')) {
+                    end++;
+                }
+                String word = clientSelection.substring(i, end);
+                if (!COLUMNS.containsKey(word)
+                        && !SELECTION_KEYWORDS.contains(word.toUpperCase(Locale.ROOT))) {
+                    throw new IllegalArgumentException("Unknown column in selection: " + word);
+                }
+                tokens.add(word);
+                i = end;
+            } else {
+                if (clientSelection.startsWith("--", i) || clientSelection.startsWith("/*", i)) {
+                    throw new IllegalArgumentException("Comments are not allowed in selection");
+                }
+                String operator = null;
+                for (String candidate : SELECTION_OPERATORS) {
+                    if (clientSelection.startsWith(candidate, i)) {
+                        operator = candidate;
+                        break;
+                    }
+                }
+                if (operator == null) {
+                    throw new IllegalArgumentException("Unexpected character in selection: " + c);
+                }
+                tokens.add(operator);
+                i += operator.length();
+            }
+        }
+        return tokens;
+    }
+
+    // Maps the column names of a tokenized selection to their expressions
+    // Equality and IN comparisons of the status against labels are rewritten to compare the raw
+    // column against codes, so SQLite can use the (status, start_time) index instead of
+    // evaluating the CASE expression on every row; the indexes of placeholders that now stand
+    // for a status code are added to statusArguments
+    private static List<String> rewriteSelection(List<String> tokens, Set<Integer> statusArguments) {
+        // The AND of a BETWEEN does not separate comparisons, so it is not trusted as a boundary
+        boolean hasBetween = false;
+        for (String token : tokens) {
+            hasBetween |= token.equalsIgnoreCase("BETWEEN");
+        }
+        List<String> rewritten = new ArrayList<>();
+        int placeholder = 0;
+        int i = 0;
+        while (i < tokens.size()) {
+            int end = statusComparisonEnd(tokens, i, hasBetween);
+            if (end > i) {
+                for (int j = i; j < end; j++) {
+                    String token = tokens.get(j);
+                    if (token.equals("?")) {
+                        statusArguments.add(placeholder++);
+                        rewritten.add(token);
+                    } else if (isLiteral(token)) {
+                        rewritten.add(Integer.toString(statusCode(unquote(token))));
+                    } else {
+                        rewritten.add(token);
+                    }
+                }
+                i = end;
+                continue;
+            }
+            String token = tokens.get(i);
+            if (token.equals("?")) {
+                placeholder++;
+            }
+            rewritten.add(COLUMNS.containsKey(token) ? COLUMNS.get(token) : token);
+            i++;
+        }
+        return rewritten;
+    }
+
+    // Returns the end of a status comparison starting at the given token, or start if there is
+    // none: status = value, value = status and status [NOT] IN (values), where each value is a
+    // literal or a placeholder and the comparison is not an operand of a tighter operator
+    private static int statusComparisonEnd(List<String> tokens, int start, boolean hasBetween) {
+        String before = start > 0 ? tokens.get(start - 1) : null;
+        if (before != null && !before.equals("(") && !before.equals(",")
+                && !before.equalsIgnoreCase("NOT") && !isLogicalOperator(before, hasBetween)) {
+            return start;
+        }
+        int end = start;
+        if (tokenAt(tokens, start).equals(STATUS_COLUMN)) {
+            int next = start + 1;
+            if (STATUS_EQUALITY_OPERATORS.contains(tokenAt(tokens, next))
+                    && isValue(tokenAt(tokens, next + 1))) {
+                end = next + 2;
+            } else {
+                if (tokenAt(tokens, next).equalsIgnoreCase("NOT")) {
+                    next++;
+                }
+                if (!tokenAt(tokens, next).equalsIgnoreCase("IN")
+                        || !tokenAt(tokens, next + 1).equals("(")) {
+                    return start;
+                }
+                next += 2;
+                while (true) {
+                    if (!isValue(tokenAt(tokens, next))) {
+                        return start;
+                    }
+                    String separator = tokenAt(tokens, next + 1);
+                    next += 2;
+                    if (separator.equals(")")) {
+                        break;
+                    }
+                    if (!separator.equals(",")) {
+                        return start;
+                    }
+                }
+                end = next;
+            }
+        } else if (isValue(tokenAt(tokens, start))
+                && STATUS_EQUALITY_OPERATORS.contains(tokenAt(tokens, start + 1))
+                && tokenAt(tokens, start + 2).equals(STATUS_COLUMN)) {
+            end = start + 3;
+        } else {
+            return start;
+        }
+        String after = end < tokens.size() ? tokens.get(end) : null;
+        if (after != null && !after.equals(")") && !after.equals(",")
+                && !isLogicalOperator(after, hasBetween)) {
+            return start;
+        }
+        return end;
+    }
+
+    private static boolean isLogicalOperator(String token, boolean hasBetween) {
+        return token.equalsIgnoreCase("OR") || (!hasBetween && token.equalsIgnoreCase("AND"));
+    }
+
+    private static String tokenAt(List<String> tokens, int index) {
+        return index < tokens.size() ? tokens.get(index) : "";
+    }
+
+    private static boolean isValue(String token) {
+        return token.equals("?") || isLiteral(token);
+    }
+
+    private static boolean isLiteral(String token) {
+        return token.startsWith("'");
+    }
+
+    private static String unquote(String literal) {
+        return literal.substring(1, literal.length() - 1).replace("''", "'");
+    }
+
+    // Code of a status label; an unknown label gets a code no task has, so it matches nothing
+    private static int statusCode(String label) {
+        try {
+            return TaskStatus.fromLabel(label).getCode();
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN_STATUS_CODE;
+        }
+    }
+
+    private static Integer parseNonNegative(String name, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Negative " + name + ": " + value);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+}
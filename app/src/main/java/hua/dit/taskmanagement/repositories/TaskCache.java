@@ -0,0 +1,129 @@
+package hua.dit.taskmanagement.repositories;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+// Bounded LRU cache of tasks keyed by uid, limited by entry count and approximate size
+// The cache keeps its own copies so callers can never modify a cached task
+final class TaskCache {
+    // Approximate fixed cost of a cached task: the object, its Date, the boxed fields and the map entry
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // Access-ordered map, the eldest entry is the least recently used
+    private final LinkedHashMap<Integer, Task> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    // Incremented on every invalidation and local write, see getGeneration
+    private long generation;
+
+    private long hitCount;
+    private long missCount;
+
+    TaskCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    // Returns a copy of the cached task, or null on a miss
+    synchronized Task get(int uid) {
+        Task task = entries.get(uid);
+        if (task == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return task.copy();
+    }
+
+    // Returns the current generation; a task read from the database is only cached
+    // if no invalidation or local write happened in between, since reads and writes run concurrently
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    // Caches a task read from the database, unless the table was invalidated since the read started
+    synchronized void putIfCurrent(Task task, long readGeneration) {
+        if (task != null && readGeneration == generation) {
+            store(task.copy());
+        }
+    }
+
+    // Caches a task that was just written locally
+    synchronized void put(Task task) {
+        generation++;
+        store(task.copy());
+    }
+
+    // Applies a local status update to the cached task, if present
+    synchronized void updateStatus(int uid, TaskStatus status) {
+        generation++;
+        Task cached = entries.get(uid);
+        if (cached != null) {
+            Task updated = cached.copy();
+            updated.setStatus(status);
+            store(updated);
+        }
+    }
+
+    synchronized void remove(int uid) {
+        generation++;
+        Task removed = entries.remove(uid);
+        if (removed != null) {
+            bytes -= sizeOf(removed);
+        }
+    }
+
+    // Drops every entry, used when the table changed outside the repository
+    synchronized void invalidateAll() {
+        entries.clear();
+        bytes = 0;
+        generation++;
+    }
+
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void store(Task task) {
+        Task previous = entries.put(task.getUid(), task);
+        if (previous != null) {
+            bytes -= sizeOf(previous);
+        }
+        bytes += sizeOf(task);
+        trim();
+    }
+
+    // Evicts least recently used entries until both limits hold
+    private void trim() {
+        Iterator<Map.Entry<Integer, Task>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && iterator.hasNext()) {
+            bytes -= sizeOf(iterator.next().getValue());
+            iterator.remove();
+        }
+    }
+
+    // Approximate heap footprint of a task, dominated by its strings (two bytes per char)
+    private static long sizeOf(Task task) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (length(task.getShortName())
+                + length(task.getDescription()) + length(task.getLocation()));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
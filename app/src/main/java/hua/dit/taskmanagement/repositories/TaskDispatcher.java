@@ -0,0 +1,210 @@
+package hua.dit.taskmanagement.repositories;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Runs repository work off the main thread and delivers the results on it
+// Reads run on a small bounded pool so that a slow read, e.g. an export, does not hold up other
+// reads or any write; writes run one at a time on their own thread
+// Reads are ordered by priority class with aging (see TaskPriority), reads of the same class run
+// in submission order. Writes always run in submission order, whatever their class: two writes
+// to the same task must land in the order they were made. Their class is only used for the
+// queueing statistics
+final class TaskDispatcher {
+    // Number of threads serving reads, SQLite in WAL mode reads concurrently with the writer
+    private static final int READ_THREADS = 3;
+
+    private final ThreadPoolExecutor readExecutor;
+    private final ThreadPoolExecutor writeExecutor;
+
+    // Breaks deadline ties in submission order
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Queueing delay per priority class, indexed by ordinal
+    private final int classCount = TaskPriority.values().length;
+    private final AtomicLongArray dispatchCounts = new AtomicLongArray(classCount);
+    private final AtomicLongArray totalDelayNanos = new AtomicLongArray(classCount);
+    private final AtomicLongArray maxDelayNanos = new AtomicLongArray(classCount);
+
+    // Shared main thread handler; results queued while a delivery is pending are run together
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Object deliveryLock = new Object();
+    private List<Runnable> pendingDeliveries = new ArrayList<>();
+    private boolean deliveryScheduled;
+
+    TaskDispatcher() {
+        readExecutor = new ThreadPoolExecutor(READ_THREADS, READ_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), threadFactory("TaskRepository-read"));
+        writeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("TaskRepository-write"));
+    }
+
+    // Runs a read and passes its result to the callback on the main thread
+    <T> void read(TaskPriority priority, Callable<T> work, TaskRepository.DataCallback<T> callback) {
+        read(priority, () -> complete(work, callback));
+    }
+
+    // Runs a write and passes its result to the callback on the main thread
+    <T> void write(TaskPriority priority, Callable<T> work, TaskRepository.DataCallback<T> callback) {
+        write(priority, () -> complete(work, callback));
+    }
+
+    // Runs a write that reports a number, e.g. a row count or a generated id
+    void writeOperation(TaskPriority priority, Callable<? extends Number> work,
+                        TaskRepository.OperationCallback callback) {
+        write(priority, () -> {
+            try {
+                long result = work.call().longValue();
+                deliver(() -> {
+                    if (callback != null) {
+                        callback.onSuccess(result);
+                    }
+                });
+            } catch (Exception e) {
+                deliver(() -> {
+                    if (callback != null) {
+                        callback.onError(e.getMessage());
+                    }
+                });
+            }
+        });
+    }
+
+    // Runs work on the read pool, for callers that deliver their own results
+    void read(TaskPriority priority, Runnable work) {
+        readExecutor.execute(new PrioritizedWork(priority, work));
+    }
+
+    // Runs work on the writer thread after every write submitted before it, for callers that
+    // deliver their own results
+    void write(TaskPriority priority, Runnable work) {
+        writeExecutor.execute(new PrioritizedWork(priority, work));
+    }
+
+    // Runs a callback on the main thread
+    // One message drains every callback queued until it runs, so a burst of results costs a
+    // single main thread wakeup
+    void deliver(Runnable callback) {
+        synchronized (deliveryLock) {
+            pendingDeliveries.add(callback);
+            if (deliveryScheduled) {
+                return;
+            }
+            deliveryScheduled = true;
+        }
+        mainHandler.post(this::drainDeliveries);
+    }
+
+    // Returns the number of reads and writes waiting for a thread
+    int getQueueDepth() {
+        return readExecutor.getQueue().size() + writeExecutor.getQueue().size();
+    }
+
+    int getReadQueueDepth() {
+        return readExecutor.getQueue().size();
+    }
+
+    int getWriteQueueDepth() {
+        return writeExecutor.getQueue().size();
+    }
+
+    // Returns the number of callbacks waiting to run on the main thread
+    int getPendingDeliveryCount() {
+        synchronized (deliveryLock) {
+            return pendingDeliveries.size();
+        }
+    }
+
+    // Returns the queueing delay recorded so far for a priority class
+    TaskQueueStats getQueueStats(TaskPriority priority) {
+        int index = priority.ordinal();
+        return new TaskQueueStats(priority, dispatchCounts.get(index),
+                totalDelayNanos.get(index), maxDelayNanos.get(index));
+    }
+
+    private <T> void complete(Callable<T> work, TaskRepository.DataCallback<T> callback) {
+        try {
+            T result = work.call();
+            deliver(() -> {
+                if (callback != null) {
+                    callback.onDataLoaded(result);
+                }
+            });
+        } catch (Exception e) {
+            deliver(() -> {
+                if (callback != null) {
+                    callback.onError(e.getMessage());
+                }
+            });
+        }
+    }
+
+    private void drainDeliveries() {
+        List<Runnable> deliveries;
+        synchronized (deliveryLock) {
+            deliveries = pendingDeliveries;
+            pendingDeliveries = new ArrayList<>();
+            deliveryScheduled = false;
+        }
+        for (Runnable delivery : deliveries) {
+            delivery.run();
+        }
+    }
+
+    private void recordDelay(TaskPriority priority, long delayNanos) {
+        int index = priority.ordinal();
+        dispatchCounts.incrementAndGet(index);
+        totalDelayNanos.addAndGet(index, delayNanos);
+        long max;
+        do {
+            max = maxDelayNanos.get(index);
+        } while (delayNanos > max && !maxDelayNanos.compareAndSet(index, max, delayNanos));
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> new Thread(runnable, name + "-" + count.incrementAndGet());
+    }
+
+    // Queued work ordered by deadline, then by submission order; the write queue ignores the order
+    private final class PrioritizedWork implements Runnable, Comparable<PrioritizedWork> {
+        private final TaskPriority priority;
+        private final Runnable work;
+        private final long enqueuedNanos = System.nanoTime();
+        private final long deadlineNanos;
+        private final long order = sequence.getAndIncrement();
+
+        PrioritizedWork(TaskPriority priority, Runnable work) {
+            this.priority = priority;
+            this.work = work;
+            this.deadlineNanos = enqueuedNanos + priority.getAllowedWaitNanos();
+        }
+
+        @Override
+        public void run() {
+            recordDelay(priority, System.nanoTime() - enqueuedNanos);
+            work.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedWork other) {
+            // Compare the difference, nanoTime values may overflow
+            long difference = deadlineNanos - other.deadlineNanos;
+            if (difference != 0) {
+                return difference < 0 ? -1 : 1;
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+}
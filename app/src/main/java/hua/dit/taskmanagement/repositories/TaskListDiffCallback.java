@@ -0,0 +1,49 @@
+package hua.dit.taskmanagement.repositories;
+
+import androidx.recyclerview.widget.DiffUtil;
+import java.util.List;
+import java.util.Objects;
+
+import hua.dit.taskmanagement.entities.Task;
+
+// Compares two snapshots of a task list: tasks are the same item when their uids match,
+// and unchanged when every displayed and stored field is equal
+public final class TaskListDiffCallback extends DiffUtil.Callback {
+    private final List<Task> oldTasks;
+    private final List<Task> newTasks;
+
+    public TaskListDiffCallback(List<Task> oldTasks, List<Task> newTasks) {
+        this.oldTasks = oldTasks;
+        this.newTasks = newTasks;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return oldTasks.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return newTasks.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+        return oldTasks.get(oldItemPosition).getUid() == newTasks.get(newItemPosition).getUid();
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+        return sameContents(oldTasks.get(oldItemPosition), newTasks.get(newItemPosition));
+    }
+
+    // Whether two versions of a task hold the same values
+    public static boolean sameContents(Task oldTask, Task newTask) {
+        return oldTask.getStatus() == newTask.getStatus()
+                && Objects.equals(oldTask.getShortName(), newTask.getShortName())
+                && Objects.equals(oldTask.getDescription(), newTask.getDescription())
+                && Objects.equals(oldTask.getStartTime(), newTask.getStartTime())
+                && Objects.equals(oldTask.getDurationHours(), newTask.getDurationHours())
+                && Objects.equals(oldTask.getLocation(), newTask.getLocation());
+    }
+}
@@ -0,0 +1,193 @@
+package hua.dit.taskmanagement.repositories;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.room.InvalidationTracker;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import hua.dit.taskmanagement.dao.TaskDao;
+import hua.dit.taskmanagement.entities.Task;
+
+// Live window of non-completed tasks in list order: at most limit tasks, starting at a key
+// The window is re-read whenever the tasks table changes, from any writer, or when the window moves
+// Each new snapshot is diffed against the previous one on the load executor, e.g. the read pool,
+// so the observer only receives the inserts, removes, moves and changes between them on the
+// delivery executor, e.g. the main thread
+// Tasks are turned into rows of type R by a mapper on the load executor as well, e.g. to
+// precompute display data
+public final class TaskListQuery<R> {
+    private final TaskDao taskDao;
+    private final InvalidationTracker invalidationTracker;
+    // Runs loads, one at a time per query
+    private final Executor loadExecutor;
+    // Runs observer callbacks in the order they were passed to it
+    private final Executor deliveryExecutor;
+    private final RowMapper<R> mapper;
+    private final Observer<R> observer;
+    private final InvalidationTracker.Observer tableObserver;
+
+    // Window parameters, guarded by this
+    private TaskPageKey from;
+    private int limit;
+    private boolean closed;
+    // Incremented by every window move; the observer has seen the current window once
+    // deliveredVersion catches up
+    private int windowVersion;
+    private int deliveredVersion;
+
+    // A load is queued or running; further requests set reloadRequested and are coalesced into
+    // one more load once it finishes, so loads never overlap
+    private boolean loading;
+    private boolean reloadRequested;
+
+    // Last snapshot passed to the observer, only touched by the load in progress
+    private List<Task> snapshot = Collections.emptyList();
+
+    // TaskRepository.observeNonCompletedTasks creates and starts queries over the app database
+    public TaskListQuery(TaskDao taskDao, InvalidationTracker invalidationTracker,
+                         Executor loadExecutor, Executor deliveryExecutor, TaskPageKey from,
+                         int limit, RowMapper<R> mapper, Observer<R> observer) {
+        this.taskDao = taskDao;
+        this.invalidationTracker = invalidationTracker;
+        this.loadExecutor = loadExecutor;
+        this.deliveryExecutor = deliveryExecutor;
+        this.from = from;
+        this.limit = limit;
+        this.mapper = mapper;
+        this.observer = observer;
+        this.tableObserver = new InvalidationTracker.Observer("tasks") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                requestLoad();
+            }
+        };
+    }
+
+    // Starts observing the table and loads the first snapshot
+    public void start() {
+        invalidationTracker.addObserver(tableObserver);
+        requestLoad();
+    }
+
+    // Moves the window; from is the key of its first task (null for the first task of the list)
+    public void setWindow(TaskPageKey from, int limit) {
+        synchronized (this) {
+            this.from = from;
+            this.limit = limit;
+            windowVersion++;
+        }
+        requestLoad();
+    }
+
+    // Whether the window was moved and the observer has not received its snapshot yet
+    public synchronized boolean isWindowPending() {
+        return deliveredVersion != windowVersion;
+    }
+
+    public synchronized TaskPageKey getFrom() {
+        return from;
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    // Stops observing; no callback runs after close returns on the delivery executor's thread
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        invalidationTracker.removeObserver(tableObserver);
+    }
+
+    private void requestLoad() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (loading) {
+                reloadRequested = true;
+                return;
+            }
+            loading = true;
+        }
+        loadExecutor.execute(this::load);
+    }
+
+    // Reads the window and diffs it against the previous snapshot, runs on the load executor
+    private void load() {
+        TaskPageKey windowFrom;
+        int windowLimit;
+        int version;
+        synchronized (this) {
+            reloadRequested = false;
+            windowFrom = from;
+            windowLimit = limit;
+            version = windowVersion;
+        }
+
+        try {
+            List<Task> tasks = Collections.unmodifiableList(new ArrayList<>(windowFrom == null
+                    ? taskDao.getNonCompletedTasksFirstPage(windowLimit)
+                    : taskDao.getNonCompletedTasksPageFrom(windowFrom.getStatusRank(),
+                            windowFrom.getStartTime(), windowFrom.getUid(), windowLimit)));
+            DiffUtil.DiffResult changes =
+                    DiffUtil.calculateDiff(new TaskListDiffCallback(snapshot, tasks), true);
+            snapshot = tasks;
+            List<R> rows = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                rows.add(mapper.map(task));
+            }
+            deliveryExecutor.execute(() -> {
+                if (markDelivered(version)) {
+                    observer.onChanged(Collections.unmodifiableList(rows), changes, windowLimit);
+                }
+            });
+        } catch (Exception e) {
+            deliveryExecutor.execute(() -> {
+                if (markDelivered(version)) {
+                    observer.onError(e.getMessage());
+                }
+            });
+        }
+
+        boolean again;
+        synchronized (this) {
+            again = reloadRequested && !closed;
+            loading = again;
+        }
+        if (again) {
+            loadExecutor.execute(this::load);
+        }
+    }
+
+    // Records that the snapshot of a window version reaches the observer, unless the query is closed
+    private synchronized boolean markDelivered(int version) {
+        if (closed) {
+            return false;
+        }
+        deliveredVersion = version;
+        return true;
+    }
+
+    // Turns a loaded task into the row delivered to the observer, runs on the load executor
+    // The task is part of the query's snapshot and must not be modified
+    public interface RowMapper<R> {
+        R map(Task task);
+    }
+
+    // Receives the snapshots of a query on the delivery executor
+    public interface Observer<R> {
+        // rows is the new window, changes turns the previous window into it;
+        // fewer than limit rows means the window reaches the end of the list
+        void onChanged(List<R> rows, DiffUtil.DiffResult changes, int limit);
+        void onError(String error);
+    }
+}
@@ -0,0 +1,45 @@
+package hua.dit.taskmanagement.repositories;
+
+import hua.dit.taskmanagement.entities.Task;
+
+// Position of a task in the ordered list of non-completed tasks
+// Used as the keyset pagination cursor: (status rank, start time, uid)
+public final class TaskPageKey {
+    // Status code of the task, which is also its list rank
+    private final int statusRank;
+    private final long startTime;
+    private final int uid;
+
+    public TaskPageKey(int statusRank, long startTime, int uid) {
+        this.statusRank = statusRank;
+        this.startTime = startTime;
+        this.uid = uid;
+    }
+
+    // Builds the key of a loaded task; a missing start time sorts first
+    public static TaskPageKey of(Task task) {
+        long startTime = task.getStartTime() != null ? task.getStartTime().getTime() : Long.MIN_VALUE;
+        return new TaskPageKey(task.getStatus().getCode(), startTime, task.getUid());
+    }
+
+    public int getStatusRank() {
+        return statusRank;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public int getUid() {
+        return uid;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskPageKey{" +
+                "statusRank=" + statusRank +
+                ", startTime=" + startTime +
+                ", uid=" + uid +
+                '}';
+    }
+}
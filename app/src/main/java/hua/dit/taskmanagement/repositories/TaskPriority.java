@@ -0,0 +1,28 @@
+package hua.dit.taskmanagement.repositories;
+
+import java.util.concurrent.TimeUnit;
+
+// Priority class of a repository operation
+// Queued reads run in order of their deadline: the time they were queued plus the wait their
+// class tolerates. Interactive reads therefore run first, but a background read that has waited
+// longer than its allowance overtakes newer interactive reads and cannot starve
+// Writes run in submission order regardless of their class, see TaskDispatcher
+public enum TaskPriority {
+    // Reads the user is waiting for, such as opening a task or scrolling the list
+    INTERACTIVE(0),
+    // User initiated work that may take a moment, such as saving or exporting
+    NORMAL(100),
+    // Maintenance work nobody waits for, such as status sweeps
+    BACKGROUND(1000);
+
+    private final long allowedWaitNanos;
+
+    TaskPriority(long allowedWaitMillis) {
+        this.allowedWaitNanos = TimeUnit.MILLISECONDS.toNanos(allowedWaitMillis);
+    }
+
+    // Time work of this class may wait behind newer work of a higher class
+    long getAllowedWaitNanos() {
+        return allowedWaitNanos;
+    }
+}
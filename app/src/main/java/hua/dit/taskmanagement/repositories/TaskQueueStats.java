@@ -0,0 +1,42 @@
+package hua.dit.taskmanagement.repositories;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Snapshot of the time operations of one priority class spent queued before a thread picked them up
+public final class TaskQueueStats {
+    private final TaskPriority priority;
+    private final long count;
+    private final long totalDelayNanos;
+    private final long maxDelayNanos;
+
+    TaskQueueStats(TaskPriority priority, long count, long totalDelayNanos, long maxDelayNanos) {
+        this.priority = priority;
+        this.count = count;
+        this.totalDelayNanos = totalDelayNanos;
+        this.maxDelayNanos = maxDelayNanos;
+    }
+
+    public TaskPriority getPriority() {
+        return priority;
+    }
+
+    // Number of operations that left the queue
+    public long getCount() {
+        return count;
+    }
+
+    public double getAverageDelayMillis() {
+        return count == 0 ? 0 : totalDelayNanos / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxDelayMillis() {
+        return maxDelayNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %d ops, avg %.2f ms, max %.2f ms",
+                priority, count, getAverageDelayMillis(), getMaxDelayMillis());
+    }
+}
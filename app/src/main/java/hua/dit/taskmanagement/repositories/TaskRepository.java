@@ -1,171 +1,339 @@
 package hua.dit.taskmanagement.repositories;
 
 import android.content.Context;
-import androidx.room.Room;
+import android.database.Cursor;
+import java.io.File;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import android.os.Handler;
-import android.os.Looper;
+import java.util.Set;
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
 
 import hua.dit.taskmanagement.database.TaskDatabase;
 import hua.dit.taskmanagement.dao.TaskDao;
+import hua.dit.taskmanagement.dao.TaskSearch;
 import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+import hua.dit.taskmanagement.export.CursorTaskRowSource;
+import hua.dit.taskmanagement.export.TaskRowSerializer;
+import hua.dit.taskmanagement.utils.TaskExporter;
+import hua.dit.taskmanagement.utils.TaskStatusManager;
+import hua.dit.taskmanagement.utils.TaskStatusSweeper;
+import hua.dit.taskmanagement.utils.TaskTransitionIndex;
 
 // Repository class for handling Task data operations
+// Reads and writes run on separate threads of the dispatcher, callbacks run on the main thread
+// Every operation runs with a priority class; UI reads default to interactive, writes to normal
+// and status sweeps to background
 public class TaskRepository {
+    // Limits of the task cache
+    private static final int CACHE_MAX_ENTRIES = 256;
+    private static final long CACHE_MAX_BYTES = 256 * 1024;
+
     private TaskDao taskDao;
-    private ExecutorService executorService;
+    private final TaskDispatcher dispatcher = new TaskDispatcher();
     private final TaskDatabase database;
+    private final TaskStatusSweeper statusSweeper;
+    private final TaskCache taskCache = new TaskCache(CACHE_MAX_ENTRIES, CACHE_MAX_BYTES);
+    private final TaskTransitionIndex transitionIndex;
+    private final TaskStatusManager.Clock clock;
 
-    // Constructor initializes database and executor service
+    // Constructor initializes database and the dispatcher threads
     public TaskRepository(Context context) {
-        Context appContext = context.getApplicationContext();
-        database = Room.databaseBuilder(
-                appContext,
-                TaskDatabase.class,
-                "task_database"
-        ).build();
+        this(context, TaskStatusManager.Clock.SYSTEM);
+    }
+
+    // Status sweeps read the current time from the given clock
+    public TaskRepository(Context context, TaskStatusManager.Clock clock) {
+        this.clock = clock;
+        database = TaskDatabase.getInstance(context);
 
         taskDao = database.taskDao();
-        executorService = Executors.newSingleThreadExecutor();
+        statusSweeper = new TaskStatusSweeper(database);
+        transitionIndex = TaskTransitionIndex.getInstance(context);
+
+        // Every change to the tasks table invalidates the whole cache, including the repository's
+        // own writes: Room may merge the invalidation of a write of the ContentProvider or of
+        // another process into the one of a local write, so no invalidation can be trusted to
+        // carry only writes the cache already holds. Local writes still update the cache
+        // directly, so it never serves a stale entry before their invalidation arrives
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("tasks") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                taskCache.invalidateAll();
+            }
+        });
     }
 
     // Inserts a new task into the database
     public void insertTask(Task task, final OperationCallback callback) {
-        executorService.execute(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    long id = taskDao.insert(task);
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        if (callback != null) {
-                            callback.onSuccess(id);
-                        }
-                    });
-                } catch (Exception e) {
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        if (callback != null) {
-                            callback.onError(e.getMessage());
-                        }
-                    });
-                }
+        insertTask(task, TaskPriority.NORMAL, callback);
+    }
+
+    public void insertTask(Task task, TaskPriority priority, final OperationCallback callback) {
+        dispatcher.writeOperation(priority, () -> {
+            long id = taskDao.insert(task);
+            onInserted(task, id);
+            return id;
+        }, callback);
+    }
+
+    // Inserts a batch of tasks in a single transaction and returns their generated IDs
+    public void insertTasks(final List<Task> tasks, final DataCallback<long[]> callback) {
+        insertTasks(tasks, TaskPriority.NORMAL, callback);
+    }
+
+    public void insertTasks(final List<Task> tasks, TaskPriority priority,
+                            final DataCallback<long[]> callback) {
+        dispatcher.write(priority, () -> {
+            long[] ids = taskDao.insertAll(tasks);
+            for (int i = 0; i < ids.length; i++) {
+                onInserted(tasks.get(i), ids[i]);
             }
-        });
+            return ids;
+        }, callback);
     }
 
     // Retrieves all non-completed tasks
     public void getNonCompletedTasks(final DataCallback<List<Task>> callback) {
-        executorService.execute(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    List<Task> tasks = taskDao.getNonCompletedTasks();
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        if (callback != null) {
-                            callback.onDataLoaded(tasks);
-                        }
-                    });
-                } catch (Exception e) {
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        if (callback != null) {
-                            callback.onError(e.getMessage());
-                        }
-                    });
-                }
-            }
-        });
+        getNonCompletedTasks(TaskPriority.INTERACTIVE, callback);
     }
 
-    // Retrieves non-completed tasks in ordered form
-    public void getNonCompletedTasksOrdered(final DataCallback<List<Task>> callback) {
-        executorService.execute(() -> {
-            try {
-                List<Task> tasks = taskDao.getNonCompletedTasksOrdered();
-                new Handler(Looper.getMainLooper()).post(() -> {
-                    if (callback != null) {
-                        callback.onDataLoaded(tasks);
-                    }
-                });
-            } catch (Exception e) {
-                new Handler(Looper.getMainLooper()).post(() -> {
-                    if (callback != null) {
-                        callback.onError(e.getMessage());
-                    }
-                });
+    public void getNonCompletedTasks(TaskPriority priority, final DataCallback<List<Task>> callback) {
+        dispatcher.read(priority, () -> taskDao.getNonCompletedTasks(), callback);
+    }
+
+    // Retrieves the page of non-completed tasks that precedes the given key, in list order
+    public void getNonCompletedTasksPageBefore(final TaskPageKey before, final int pageSize,
+                                               final DataCallback<List<Task>> callback) {
+        getNonCompletedTasksPageBefore(before, pageSize, TaskPriority.INTERACTIVE, callback);
+    }
+
+    public void getNonCompletedTasksPageBefore(final TaskPageKey before, final int pageSize,
+                                               TaskPriority priority,
+                                               final DataCallback<List<Task>> callback) {
+        dispatcher.read(priority, () -> {
+            List<Task> tasks = taskDao.getNonCompletedTasksPageBefore(before.getStatusRank(),
+                    before.getStartTime(), before.getUid(), pageSize);
+            // The query walks backwards from the key, restore ascending order
+            Collections.reverse(tasks);
+            return tasks;
+        }, callback);
+    }
+
+    // Observes a window of non-completed tasks in list order, starting at the given key
+    // (null for the first task) and holding at most limit tasks; close the query when done
+    public TaskListQuery<Task> observeNonCompletedTasks(final TaskPageKey from, final int limit,
+                                                        final TaskListQuery.Observer<Task> observer) {
+        return observeNonCompletedTasks(from, limit, task -> task, TaskPriority.INTERACTIVE, observer);
+    }
+
+    // Same, with every task turned into a row by the mapper before delivery
+    public <R> TaskListQuery<R> observeNonCompletedTasks(final TaskPageKey from, final int limit,
+                                                         final TaskListQuery.RowMapper<R> mapper,
+                                                         final TaskListQuery.Observer<R> observer) {
+        return observeNonCompletedTasks(from, limit, mapper, TaskPriority.INTERACTIVE, observer);
+    }
+
+    public <R> TaskListQuery<R> observeNonCompletedTasks(final TaskPageKey from, final int limit,
+                                                         final TaskListQuery.RowMapper<R> mapper,
+                                                         TaskPriority priority,
+                                                         final TaskListQuery.Observer<R> observer) {
+        TaskListQuery<R> query = new TaskListQuery<>(taskDao, database.getInvalidationTracker(),
+                work -> dispatcher.read(priority, work), dispatcher::deliver, from, limit, mapper,
+                observer);
+        query.start();
+        return query;
+    }
+
+    // Searches the short name, description and location of every task, see TaskSearch
+    // Every word of the text matches as a prefix; at most limit tasks come back, best match first
+    public void searchTasks(final String text, final int limit, final DataCallback<List<Task>> callback) {
+        searchTasks(text, limit, TaskPriority.INTERACTIVE, callback);
+    }
+
+    public void searchTasks(final String text, final int limit, TaskPriority priority,
+                            final DataCallback<List<Task>> callback) {
+        dispatcher.read(priority, () -> TaskSearch.search(taskDao, text, limit), callback);
+    }
+
+    // Exports every non-completed task in the serializer's format, streaming the rows from the database
+    // Runs on the read pool, so a long export does not hold up writes
+    public void exportNonCompletedTasks(final Context context, final TaskRowSerializer serializer,
+                                        final DataCallback<File> callback) {
+        exportNonCompletedTasks(context, serializer, TaskPriority.NORMAL, callback);
+    }
+
+    public void exportNonCompletedTasks(final Context context, final TaskRowSerializer serializer,
+                                        TaskPriority priority, final DataCallback<File> callback) {
+        dispatcher.read(priority, () -> {
+            try (Cursor tasks = taskDao.getNonCompletedTasksExportCursor()) {
+                return TaskExporter.exportTasks(context, new CursorTaskRowSource(tasks), serializer);
             }
-        });
+        }, callback);
     }
 
     // Updates the status of a specific task
-    public void updateTaskStatus(final int taskId, final String newStatus, final OperationCallback callback) {
-        executorService.execute(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    int rowsAffected = taskDao.updateTaskStatus(taskId, newStatus);
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        if(callback != null) {
-                            callback.onSuccess(rowsAffected);
-                        }
-                    });
-                } catch (Exception e) {
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        if (callback != null) {
-                            callback.onError(e.getMessage());
-                        }
-                    });
+    public void updateTaskStatus(final int taskId, final TaskStatus newStatus, final OperationCallback callback) {
+        updateTaskStatus(taskId, newStatus, TaskPriority.NORMAL, callback);
+    }
+
+    public void updateTaskStatus(final int taskId, final TaskStatus newStatus, TaskPriority priority,
+                                 final OperationCallback callback) {
+        dispatcher.writeOperation(priority, () -> {
+            int rowsAffected = taskDao.updateTaskStatus(taskId, newStatus);
+            if (rowsAffected > 0) {
+                taskCache.updateStatus(taskId, newStatus);
+                if (newStatus == TaskStatus.COMPLETED || newStatus == TaskStatus.EXPIRED) {
+                    transitionIndex.untrack(taskId);
+                } else {
+                    // The next transition depends on the task's times
+                    Task task = loadTask(taskId);
+                    if (task != null) {
+                        transitionIndex.track(task);
+                    }
                 }
+            } else {
+                taskCache.remove(taskId);
+                transitionIndex.untrack(taskId);
             }
-        });
+            return rowsAffected;
+        }, callback);
+    }
+
+    // Moves every open task to the status its timing calls for, using set-based updates
+    // Runs as background work unless a priority is given
+    public void sweepTaskStatuses(final DataCallback<TaskStatusSweeper.Result> callback) {
+        sweepTaskStatuses(TaskPriority.BACKGROUND, callback);
+    }
+
+    public void sweepTaskStatuses(TaskPriority priority, final DataCallback<TaskStatusSweeper.Result> callback) {
+        dispatcher.write(priority, this::sweepTaskStatusesNow, callback);
+    }
+
+    // Runs a status sweep on the calling thread and returns its result
+    // For callers that already run in the background and must finish the sweep themselves,
+    // such as a WorkManager worker; never call on the main thread
+    public TaskStatusSweeper.Result sweepTaskStatusesNow() {
+        // One instant for the whole sweep and the timeline it advances
+        long now = clock.now();
+        // Once built, the timeline knows every pending transition; a sweep moves those strictly
+        // before now, so with none of them due there is nothing to update
+        if (transitionIndex.isBuilt() && transitionIndex.nextDeadline() >= now) {
+            return TaskStatusSweeper.Result.skipped();
+        }
+        TaskStatusSweeper.Result result;
+        try {
+            result = database.runInTransaction(() -> {
+                TaskStatusSweeper.Result swept = statusSweeper.sweep(now);
+                // Advanced inside the write transaction, before the sweep commits: no other write
+                // can commit in between, and one committing later reports its task after this, so
+                // its transitions stay pending
+                transitionIndex.advance(now);
+                return swept;
+            });
+        } catch (RuntimeException e) {
+            // The sweep rolled back after the timeline may have advanced, reload it
+            transitionIndex.buildAsync();
+            throw e;
+        }
+        if (result.getTransitionCount() > 0) {
+            taskCache.invalidateAll();
+        }
+        return result;
     }
 
     // Retrieves a specific task by ID
     public void getTaskById(final int taskId, final DataCallback<Task> callback) {
-        executorService.execute(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    Task task = taskDao.getTaskById(taskId);
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        if(callback != null) {
-                            callback.onDataLoaded(task);
-                        }
-                    });
-                } catch (Exception e) {
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        if (callback != null) {
-                            callback.onError(e.getMessage());
-                        }
-                    });
-                }
-            }
-        });
+        getTaskById(taskId, TaskPriority.INTERACTIVE, callback);
+    }
+
+    public void getTaskById(final int taskId, TaskPriority priority, final DataCallback<Task> callback) {
+        dispatcher.read(priority, () -> loadTask(taskId), callback);
     }
 
     // Deletes a specific task
     public void deleteTask(int taskId, final OperationCallback callback) {
-        executorService.execute(() -> {
+        deleteTask(taskId, TaskPriority.NORMAL, callback);
+    }
+
+    public void deleteTask(int taskId, TaskPriority priority, final OperationCallback callback) {
+        dispatcher.write(priority, () -> {
             try {
-                Task task = taskDao.getTaskById(taskId);
+                Task task = loadTask(taskId);
                 if (task != null) {
                     int rowsAffected = taskDao.deleteTask(task);
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        callback.onSuccess(rowsAffected);
-                    });
+                    taskCache.remove(taskId);
+                    transitionIndex.untrack(taskId);
+                    dispatcher.deliver(() -> callback.onSuccess(rowsAffected));
                 } else {
-                    new Handler(Looper.getMainLooper()).post(() -> {
-                        callback.onError("Task not found");
-                    });
+                    dispatcher.deliver(() -> callback.onError("Task not found"));
                 }
             } catch (Exception e) {
-                new Handler(Looper.getMainLooper()).post(() -> {
-                    callback.onError("Error deleting task: " + e.getMessage());
-                });
+                dispatcher.deliver(() -> callback.onError("Error deleting task: " + e.getMessage()));
             }
         });
     }
 
+    // Returns the number of reads and writes waiting for a dispatcher thread
+    public int getQueueDepth() {
+        return dispatcher.getQueueDepth();
+    }
+
+    // Returns the number of reads waiting for a thread of the read pool
+    public int getReadQueueDepth() {
+        return dispatcher.getReadQueueDepth();
+    }
+
+    // Returns the number of writes waiting for the writer thread
+    public int getWriteQueueDepth() {
+        return dispatcher.getWriteQueueDepth();
+    }
+
+    // Returns the number of callbacks waiting to run on the main thread
+    public int getPendingCallbackCount() {
+        return dispatcher.getPendingDeliveryCount();
+    }
+
+    // Returns how long operations of a priority class waited in the queue so far
+    public TaskQueueStats getQueueStats(TaskPriority priority) {
+        return dispatcher.getQueueStats(priority);
+    }
+
+    // Returns the number of task lookups served from the cache
+    public long getCacheHitCount() {
+        return taskCache.getHitCount();
+    }
+
+    // Returns the number of task lookups that had to read the database
+    public long getCacheMissCount() {
+        return taskCache.getMissCount();
+    }
+
+    // Reads a task through the cache, must run on a dispatcher thread
+    private Task loadTask(int taskId) {
+        Task task = taskCache.get(taskId);
+        if (task != null) {
+            return task;
+        }
+        long generation = taskCache.getGeneration();
+        task = taskDao.getTaskById(taskId);
+        taskCache.putIfCurrent(task, generation);
+        return task;
+    }
+
+    // Writes a freshly inserted task through to the cache and the transition index
+    // Room notifies the invalidation tracker asynchronously, so local writes update the cache
+    // directly to never serve a stale entry in between
+    private void onInserted(Task task, long id) {
+        if (id > 0) {
+            Task inserted = task.copy();
+            inserted.setUid((int) id);
+            taskCache.put(inserted);
+            transitionIndex.track(inserted);
+        }
+    }
+
     //Callback interface for operations that return a simple rssult
     public interface OperationCallback {
         void onSuccess(long result);
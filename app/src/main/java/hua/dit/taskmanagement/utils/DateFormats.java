@@ -0,0 +1,114 @@
+package hua.dit.taskmanagement.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Formats and parses task times for the whole app with immutable java.time formatters
+// Safe to share between threads. Minute-precision formats are memoized per minute: start times
+// cluster, so list binds and exports mostly reuse a string formatted before
+public final class DateFormats {
+    // Time shown in the task list and the task screens
+    public static final String DISPLAY_PATTERN = "dd/MM/yyyy HH:mm";
+    // Time written to exported files
+    public static final String EXPORT_PATTERN = "yyyy-MM-dd HH:mm";
+    // Time exchanged with ContentProvider clients
+    public static final String PROVIDER_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    // Number of memoized minutes per format, a power of two
+    private static final int CACHE_SIZE = 1024;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private static volatile DateFormats defaultInstance;
+
+    private final ZoneId zone;
+    private final Locale locale;
+    private final MinuteFormat display;
+    private final MinuteFormat export;
+    private final DateTimeFormatter provider;
+
+    public DateFormats(ZoneId zone, Locale locale) {
+        this.zone = zone;
+        this.locale = locale;
+        display = new MinuteFormat(DateTimeFormatter.ofPattern(DISPLAY_PATTERN, locale).withZone(zone));
+        export = new MinuteFormat(DateTimeFormatter.ofPattern(EXPORT_PATTERN, locale).withZone(zone));
+        provider = DateTimeFormatter.ofPattern(PROVIDER_PATTERN, locale).withZone(zone);
+    }
+
+    // Returns the formats of the device's current time zone and locale
+    // A new instance, with empty caches, replaces the shared one when either changed
+    public static DateFormats getDefault() {
+        ZoneId zone = ZoneId.systemDefault();
+        Locale locale = Locale.getDefault();
+        DateFormats formats = defaultInstance;
+        if (formats == null || !formats.zone.equals(zone) || !formats.locale.equals(locale)) {
+            formats = new DateFormats(zone, locale);
+            defaultInstance = formats;
+        }
+        return formats;
+    }
+
+    // Formats a time as shown in the app, e.g. 31/12/2024 18:30
+    public String formatDisplay(long epochMillis) {
+        return display.format(epochMillis);
+    }
+
+    // Formats a time as written to exports, e.g. 2024-12-31 18:30
+    public String formatExport(long epochMillis) {
+        return export.format(epochMillis);
+    }
+
+    // Formats a time for ContentProvider clients, e.g. 2024-12-31 18:30:00
+    public String formatProvider(long epochMillis) {
+        return provider.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+    // Parses a time sent by a ContentProvider client
+    // Throws IllegalArgumentException if the text does not match PROVIDER_PATTERN
+    public long parseProvider(String text) {
+        try {
+            return LocalDateTime.parse(text, provider).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format. Use " + PROVIDER_PATTERN, e);
+        }
+    }
+
+    // Formatter of a pattern without seconds, with a direct-mapped cache of formatted minutes
+    // Entries are immutable, so racing readers and writers at worst format a minute twice
+    private static final class MinuteFormat {
+        private final DateTimeFormatter formatter;
+        private final AtomicReferenceArray<Entry> cache = new AtomicReferenceArray<>(CACHE_SIZE);
+
+        MinuteFormat(DateTimeFormatter formatter) {
+            this.formatter = formatter;
+        }
+
+        String format(long epochMillis) {
+            long minute = Math.floorDiv(epochMillis, MILLIS_PER_MINUTE);
+            int slot = (int) (minute & (CACHE_SIZE - 1));
+            Entry entry = cache.get(slot);
+            if (entry != null && entry.minute == minute) {
+                return entry.text;
+            }
+            // Every zone offset in use is a whole number of minutes, so the minute's start
+            // formats the same as any instant within it
+            String text = formatter.format(Instant.ofEpochMilli(minute * MILLIS_PER_MINUTE));
+            cache.set(slot, new Entry(minute, text));
+            return text;
+        }
+    }
+
+    private static final class Entry {
+        final long minute;
+        final String text;
+
+        Entry(long minute, String text) {
+            this.minute = minute;
+            this.text = text;
+        }
+    }
+}
@@ -1,68 +1,119 @@
 package hua.dit.taskmanagement.utils;
 
-import android.util.Log;
 import java.util.Date;
 import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
 
 // Utility class for managing task statuses and transitions
 // Handles status determination and validation of status changes
+// Status determination works on primitive times and codes and allocates nothing, so it can run
+// over every open task of a sweep; the current time comes from a Clock
 public class TaskStatusManager {
-    // Constants defining possible task statuses
-    public static final String STATUS_RECORDED = "recorded";
-    public static final String STATUS_IN_PROGRESS = "in-progress";
-    public static final String STATUS_EXPIRED = "expired";
-    public static final String STATUS_COMPLETED = "completed";
+    // Passed in place of a missing start time or duration
+    public static final long NO_START_TIME = Long.MIN_VALUE;
+    public static final int NO_DURATION = Integer.MIN_VALUE;
 
-    // Determines the current status of a task based on its timing
-    public static String determineTaskStatus(Task task) {
-        // Return default status if task is null
-        if (task == null) return STATUS_RECORDED;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
 
-        // Return completed if task is marked as completed
-        if (STATUS_COMPLETED.equals(task.getStatus())) {
-            return STATUS_COMPLETED;
-        }
+    private static final int RECORDED = TaskStatus.RECORDED.getCode();
+    private static final int IN_PROGRESS = TaskStatus.IN_PROGRESS.getCode();
+    private static final int EXPIRED = TaskStatus.EXPIRED.getCode();
 
-        // Calculate task timing
-        Date currentTime = new Date();
-        Date startTime = task.getStartTime();
-        int durationHours = task.getDurationHours();
+    // Source of the current time in epoch milliseconds
+    // Read it once per sweep, so every task is judged against the same instant
+    public interface Clock {
+        Clock SYSTEM = System::currentTimeMillis;
 
-        // Calculate end time
-        Date endTime = new Date(startTime.getTime() + (durationHours * 60 * 60 * 1000));
+        long now();
+    }
 
-        // Determine status based on current time relative to task timeline
-        if (currentTime.before(startTime)) {
-            return STATUS_RECORDED;
+    // Returns the status code a task's timing calls for at the given instant
+    // Recorded until its start time has passed, then in-progress until its end time has passed,
+    // then expired; a task without a start time stays recorded and one without a duration
+    // never expires. The end time saturates, see endTime
+    public static int determineStatus(long now, long startMillis, int durationHours) {
+        if (startMillis == NO_START_TIME || startMillis >= now) {
+            return RECORDED;
         }
-        else if (currentTime.after(startTime) && currentTime.before(endTime)) {
-            return STATUS_IN_PROGRESS;
+        if (durationHours == NO_DURATION) {
+            return IN_PROGRESS;
+        }
+        return endTime(startMillis, durationHours) < now ? EXPIRED : IN_PROGRESS;
+    }
+
+    // End of a task's time window: its start plus its duration in 64-bit arithmetic, saturating
+    // at Long.MAX_VALUE instead of wrapping for durations far in the future
+    public static long endTime(long startMillis, int durationHours) {
+        long durationMillis = durationHours * MILLIS_PER_HOUR;
+        return durationMillis > 0 && startMillis > Long.MAX_VALUE - durationMillis
+                ? Long.MAX_VALUE : startMillis + durationMillis;
+    }
+
+    // Evaluates count tasks given as columns and writes the status code each should have into
+    // out, which may be statusCodes itself. Statuses only move forward along the allowed
+    // transitions: recorded tasks take the status of their timing, in-progress tasks can only
+    // expire, and expired and completed tasks are kept
+    // Returns the number of tasks whose status changes
+    public static int determineStatuses(long now, byte[] statusCodes, long[] startMillis,
+                                        int[] durationHours, int count, byte[] out) {
+        int changed = 0;
+        for (int i = 0; i < count; i++) {
+            int current = statusCodes[i];
+            int status = current;
+            if (current == RECORDED || current == IN_PROGRESS) {
+                int timing = determineStatus(now, startMillis[i], durationHours[i]);
+                if (current == RECORDED || timing == EXPIRED) {
+                    status = timing;
+                }
+            }
+            out[i] = (byte) status;
+            if (status != current) {
+                changed++;
+            }
         }
-        else if (currentTime.after(endTime)) {
-            return STATUS_EXPIRED;
+        return changed;
+    }
+
+    // Determines the current status of a task based on its timing
+    public static TaskStatus determineTaskStatus(Task task) {
+        return determineTaskStatus(task, Clock.SYSTEM.now());
+    }
+
+    // Determines the status of a task at the given instant based on its timing
+    public static TaskStatus determineTaskStatus(Task task, long now) {
+        // Return default status if task is null
+        if (task == null) return TaskStatus.RECORDED;
+
+        // Return completed if task is marked as completed, and keep the status of a task
+        // without a start time, whose timing is unknown
+        Date startTime = task.getStartTime();
+        if (task.getStatus() == TaskStatus.COMPLETED || startTime == null) {
+            return task.getStatus();
         }
 
-        return task.getStatus();
+        Integer durationHours = task.getDurationHours();
+        return TaskStatus.fromCode(determineStatus(now, startTime.getTime(),
+                durationHours != null ? durationHours : NO_DURATION));
     }
 
     // Validates if a status transition is allowed
-    public static boolean canTransitionTo(String currentStatus, String newStatus) {
+    public static boolean canTransitionTo(TaskStatus currentStatus, TaskStatus newStatus) {
         switch (currentStatus) {
-            case STATUS_RECORDED:
+            case RECORDED:
                 // Recorded tasks can move to in-progress or completed
-                return newStatus.equals(STATUS_IN_PROGRESS) ||
-                        newStatus.equals(STATUS_COMPLETED);
+                return newStatus == TaskStatus.IN_PROGRESS ||
+                        newStatus == TaskStatus.COMPLETED;
 
-            case STATUS_IN_PROGRESS:
+            case IN_PROGRESS:
                 // In-progress tasks can expire or complete
-                return newStatus.equals(STATUS_EXPIRED) ||
-                        newStatus.equals(STATUS_COMPLETED);
+                return newStatus == TaskStatus.EXPIRED ||
+                        newStatus == TaskStatus.COMPLETED;
 
-            case STATUS_EXPIRED:
+            case EXPIRED:
                 // Expired tasks can only be completed
-                return newStatus.equals(STATUS_COMPLETED);
+                return newStatus == TaskStatus.COMPLETED;
 
-            case STATUS_COMPLETED:
+            case COMPLETED:
                 // Completed tasks cannot transition
                 return false;
 
@@ -70,11 +121,4 @@ public class TaskStatusManager {
                 return false;
         }
     }
-
-    // Logs status transitions for debugging purposes
-    public static void logStatusTransition(Task task, String oldStatus, String newStatus) {
-        Log.d("TaskStatusManager",
-                String.format("Task %d status changed from %s to %s",
-                        task.getUid(), oldStatus, newStatus));
-    }
 }
@@ -0,0 +1,122 @@
+package hua.dit.taskmanagement.utils;
+
+import android.database.Cursor;
+
+import java.util.Arrays;
+
+// Columnar snapshot of the fields status evaluation needs: uid, status, start time and duration
+// Rows are read straight from a cursor into primitive arrays, without a Task, Date, boxed Integer
+// or String per row. The arrays only grow and are reused by later loads, so reloading a snapshot
+// of the same size allocates nothing
+// Not thread-safe; a snapshot belongs to one loader at a time
+public final class TaskStatusSnapshot {
+    // Stored in place of a missing start time or duration
+    public static final long NO_START_TIME = TaskStatusManager.NO_START_TIME;
+    public static final int NO_DURATION = TaskStatusManager.NO_DURATION;
+
+    private int[] uids;
+    private byte[] statusCodes;
+    private long[] startTimes;
+    private int[] durationHours;
+    private int size;
+
+    public TaskStatusSnapshot() {
+        this(16);
+    }
+
+    public TaskStatusSnapshot(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        uids = new int[capacity];
+        statusCodes = new byte[capacity];
+        startTimes = new long[capacity];
+        durationHours = new int[capacity];
+    }
+
+    // Replaces the snapshot with the rows of a cursor over uid, status, start_time and
+    // duration_hours, e.g. TaskDao.getTransitionCandidatesCursor; returns the number of rows
+    public int load(Cursor cursor) {
+        clear();
+        ensureCapacity(cursor.getCount());
+        int uidIndex = cursor.getColumnIndexOrThrow("uid");
+        int statusIndex = cursor.getColumnIndexOrThrow("status");
+        int startTimeIndex = cursor.getColumnIndexOrThrow("start_time");
+        int durationIndex = cursor.getColumnIndexOrThrow("duration_hours");
+        while (cursor.moveToNext()) {
+            add(cursor.getInt(uidIndex),
+                    cursor.getInt(statusIndex),
+                    cursor.isNull(startTimeIndex) ? NO_START_TIME : cursor.getLong(startTimeIndex),
+                    cursor.isNull(durationIndex) ? NO_DURATION : cursor.getInt(durationIndex));
+        }
+        return size;
+    }
+
+    // Appends a row; use NO_START_TIME and NO_DURATION for missing values
+    public void add(int uid, int statusCode, long startTime, int duration) {
+        ensureCapacity(size + 1);
+        uids[size] = uid;
+        statusCodes[size] = (byte) statusCode;
+        startTimes[size] = startTime;
+        durationHours[size] = duration;
+        size++;
+    }
+
+    // Empties the snapshot, keeping its arrays
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getUid(int row) {
+        return uids[row];
+    }
+
+    public int getStatusCode(int row) {
+        return statusCodes[row];
+    }
+
+    public long getStartTime(int row) {
+        return startTimes[row];
+    }
+
+    public int getDurationHours(int row) {
+        return durationHours[row];
+    }
+
+    public boolean hasStartTime(int row) {
+        return startTimes[row] != NO_START_TIME;
+    }
+
+    public boolean hasDuration(int row) {
+        return durationHours[row] != NO_DURATION;
+    }
+
+    // End of the row's time window, see TaskStatusManager.endTime, or NO_START_TIME if it has none
+    public long getEndTime(int row) {
+        if (!hasStartTime(row) || !hasDuration(row)) {
+            return NO_START_TIME;
+        }
+        return TaskStatusManager.endTime(startTimes[row], durationHours[row]);
+    }
+
+    // Writes the status code every row should have at the given instant into out, see
+    // TaskStatusManager.determineStatuses; returns the number of rows whose status changes
+    public int evaluate(long now, byte[] out) {
+        return TaskStatusManager.determineStatuses(now, statusCodes, startTimes, durationHours,
+                size, out);
+    }
+
+    // Grows the arrays to hold at least the given number of rows
+    private void ensureCapacity(int capacity) {
+        if (capacity <= uids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, uids.length + (uids.length >> 1));
+        uids = Arrays.copyOf(uids, newCapacity);
+        statusCodes = Arrays.copyOf(statusCodes, newCapacity);
+        startTimes = Arrays.copyOf(startTimes, newCapacity);
+        durationHours = Arrays.copyOf(durationHours, newCapacity);
+    }
+}
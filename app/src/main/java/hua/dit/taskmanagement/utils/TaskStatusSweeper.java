@@ -0,0 +1,109 @@
+package hua.dit.taskmanagement.utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import hua.dit.taskmanagement.dao.TaskDao;
+import hua.dit.taskmanagement.database.TaskDatabase;
+
+// Set-based status sweep shared by TaskStatusCheckWorker and TaskStatusWork
+// Instead of loading every open task and updating it row by row, the sweep moves whole
+// time ranges with two UPDATE statements inside one transaction:
+// recorded -> in-progress once start_time has passed, then in-progress -> expired once
+// start_time + duration_hours has passed. A task whose whole window passed between two
+// sweeps walks through both allowed transitions and ends up expired.
+public class TaskStatusSweeper {
+    // Logging tag for this class
+    private static final String TAG = "TaskStatusSweeper";
+
+    private final TaskDatabase database;
+    private final TaskDao taskDao;
+
+    public TaskStatusSweeper(TaskDatabase database) {
+        this.database = database;
+        this.taskDao = database.taskDao();
+    }
+
+    // Runs one sweep against the given instant and returns the rows it examined and changed
+    public Result sweep(long now) {
+        long startMillis = SystemClock.elapsedRealtime();
+        Result result = database.runInTransaction(() -> {
+            int scannedCount = taskDao.countSweepCandidates();
+            int startedCount = taskDao.markStartedTasksInProgress(now);
+            int expiredCount = taskDao.markEndedTasksExpired(now);
+            return new Result(scannedCount, startedCount, expiredCount,
+                    SystemClock.elapsedRealtime() - startMillis);
+        });
+        Log.i(TAG, "Sweep at " + now + ": " + result);
+        return result;
+    }
+
+    // Number of rows examined and moved by a sweep, and the time it took
+    // A sweep skipped without reading the table has no counts, see skipped
+    public static final class Result {
+        private final int scannedCount;
+        private final int startedCount;
+        private final int expiredCount;
+        private final long elapsedMillis;
+        private final boolean skipped;
+
+        public Result(int scannedCount, int startedCount, int expiredCount, long elapsedMillis) {
+            this(scannedCount, startedCount, expiredCount, elapsedMillis, false);
+        }
+
+        private Result(int scannedCount, int startedCount, int expiredCount, long elapsedMillis,
+                       boolean skipped) {
+            this.scannedCount = scannedCount;
+            this.startedCount = startedCount;
+            this.expiredCount = expiredCount;
+            this.elapsedMillis = elapsedMillis;
+            this.skipped = skipped;
+        }
+
+        // Result of a sweep that did not run because no transition was due
+        public static Result skipped() {
+            return new Result(0, 0, 0, 0, true);
+        }
+
+        // Whether the sweep was skipped; a sweep that ran and found nothing is not
+        public boolean isSkipped() {
+            return skipped;
+        }
+
+        // Open rows the sweep examined, i.e. recorded and in-progress tasks
+        public int getScannedCount() {
+            return scannedCount;
+        }
+
+        // Rows moved from recorded to in-progress
+        public int getStartedCount() {
+            return startedCount;
+        }
+
+        // Rows moved from in-progress to expired
+        public int getExpiredCount() {
+            return expiredCount;
+        }
+
+        // Total number of status transitions applied
+        public int getTransitionCount() {
+            return startedCount + expiredCount;
+        }
+
+        // Wall time of the sweep transaction
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "scannedCount=" + scannedCount +
+                    ", startedCount=" + startedCount +
+                    ", expiredCount=" + expiredCount +
+                    ", elapsedMillis=" + elapsedMillis +
+                    ", skipped=" + skipped +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package hua.dit.taskmanagement.utils;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import hua.dit.taskmanagement.dao.TaskDao;
+import hua.dit.taskmanagement.database.TaskDatabase;
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+// Process-wide TransitionTimeline of the tasks table
+// The timeline is loaded once at startup and then kept current by the repository and the
+// ContentProvider, which report every task they write, and by status sweeps. Writes that are
+// not reported are caught by TaskTransitionScheduler, which reloads the timeline when the table
+// holds an earlier transition than it
+// TaskTransitionScheduler schedules the next sweep from nextDeadline, and a sweep with nothing
+// due skips the database
+public class TaskTransitionIndex {
+    // Logging tag for this class
+    private static final String TAG = "TaskTransitionIndex";
+
+    private static volatile TaskTransitionIndex instance;
+
+    private final TaskDao taskDao;
+    // Replaced as a whole by build; readers always see a complete timeline
+    private volatile TransitionTimeline timeline = new TransitionTimeline();
+    // Rows of the last build, kept so a rebuild reuses its arrays; guarded by buildLock
+    private final TaskStatusSnapshot snapshot = new TaskStatusSnapshot();
+    // Serializes builds without holding up reported writes
+    private final Object buildLock = new Object();
+
+    // Whether the timeline was loaded; writes reported before that are part of the load
+    // Guarded by this, which also orders reported writes against the swap at the end of a build
+    private boolean built;
+    // Writes reported while a build reads the table, replayed onto the new timeline; null when
+    // no build is running. Guarded by this
+    private List<Consumer<TransitionTimeline>> buildWrites;
+
+    // Told whenever the earliest pending transition may have moved
+    private volatile Runnable deadlineListener;
+
+    private TaskTransitionIndex(Context context) {
+        this(TaskDatabase.getInstance(context).taskDao());
+    }
+
+    // Index over the tasks read through the given DAO
+    // The app shares one index per process, see getInstance
+    public TaskTransitionIndex(TaskDao taskDao) {
+        this.taskDao = taskDao;
+    }
+
+    // Gets or creates the singleton instance
+    public static TaskTransitionIndex getInstance(Context context) {
+        if (instance == null) {
+            synchronized (TaskTransitionIndex.class) {
+                if (instance == null) {
+                    instance = new TaskTransitionIndex(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Returns the timeline, for lock-free reads
+    // A build replaces the timeline, so callers should not hold on to it
+    public TransitionTimeline getTimeline() {
+        return timeline;
+    }
+
+    public synchronized boolean isBuilt() {
+        return built;
+    }
+
+    // Sets the listener run after every change of the earliest pending transition, e.g. to
+    // reschedule the sweep; it runs on the reporting thread and must not block
+    public void setDeadlineListener(Runnable listener) {
+        deadlineListener = listener;
+    }
+
+    // Loads the timeline in the background
+    public void buildAsync() {
+        new Thread(this::build, TAG).start();
+    }
+
+    // Loads a new timeline from every recorded and in-progress task and swaps it in
+    // Rows are read into a columnar snapshot, so a load allocates no object per task
+    // The table is read without holding the index: writes reported meanwhile go to the current
+    // timeline as usual and are replayed onto the new one before the swap, so none is lost.
+    // Replaying a write the read already saw sets the same entry again
+    public void build() {
+        synchronized (buildLock) {
+            long startMillis = SystemClock.elapsedRealtime();
+            synchronized (this) {
+                buildWrites = new ArrayList<>();
+            }
+            TransitionTimeline loaded = new TransitionTimeline();
+            int count;
+            try (Cursor cursor = taskDao.getTransitionCandidatesCursor()) {
+                snapshot.load(cursor);
+                count = load(loaded);
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading the transition timeline", e);
+                synchronized (this) {
+                    buildWrites = null;
+                }
+                return;
+            }
+            synchronized (this) {
+                for (Consumer<TransitionTimeline> write : buildWrites) {
+                    write.accept(loaded);
+                }
+                buildWrites = null;
+                long previousDeadline = timeline.nextDeadline();
+                timeline = loaded;
+                built = true;
+                notifyDeadline(previousDeadline);
+            }
+            Log.i(TAG, "Loaded " + count + " transitions in " +
+                    (SystemClock.elapsedRealtime() - startMillis) + " ms");
+        }
+    }
+
+    // Loads the snapshot's pending transitions into a timeline and returns their number
+    private int load(TransitionTimeline target) {
+        int rows = snapshot.size();
+        int[] uids = new int[rows];
+        long[] times = new long[rows];
+        long[] nextTimes = new long[rows];
+        int count = 0;
+        int recorded = TaskStatus.RECORDED.getCode();
+        for (int row = 0; row < rows; row++) {
+            if (!snapshot.hasStartTime(row)) {
+                continue;
+            }
+            long endTime = snapshot.hasDuration(row) ? snapshot.getEndTime(row)
+                    : TransitionTimeline.NO_TIME;
+            if (snapshot.getStatusCode(row) == recorded) {
+                times[count] = snapshot.getStartTime(row);
+                nextTimes[count] = endTime;
+            } else if (endTime != TransitionTimeline.NO_TIME) {
+                times[count] = endTime;
+                nextTimes[count] = TransitionTimeline.NO_TIME;
+            } else {
+                continue;
+            }
+            uids[count++] = snapshot.getUid(row);
+        }
+        target.load(uids, times, nextTimes, count);
+        return count;
+    }
+
+    // Reports a task that was inserted or updated
+    public void track(Task task) {
+        Date start = task.getStartTime();
+        Integer duration = task.getDurationHours();
+        long endTime = start == null || duration == null ? TransitionTimeline.NO_TIME
+                : TaskStatusManager.endTime(start.getTime(), duration);
+        int uid = task.getUid();
+        if (task.getStatus() == TaskStatus.RECORDED && start != null) {
+            long startTime = start.getTime();
+            apply(target -> target.put(uid, startTime, endTime));
+        } else if (task.getStatus() == TaskStatus.IN_PROGRESS && endTime != TransitionTimeline.NO_TIME) {
+            apply(target -> target.put(uid, endTime, TransitionTimeline.NO_TIME));
+        } else {
+            apply(target -> target.remove(uid));
+        }
+    }
+
+    // Reports a task that was deleted, or moved to a status without further transitions
+    public void untrack(int uid) {
+        apply(target -> target.remove(uid));
+    }
+
+    // Reports a status sweep at the given instant
+    public void advance(long now) {
+        apply(target -> target.advance(now));
+    }
+
+    // Returns the earliest pending transition time, or TransitionTimeline.NO_DEADLINE
+    // Only meaningful once the timeline is built, see isBuilt
+    public long nextDeadline() {
+        return timeline.nextDeadline();
+    }
+
+    // Applies a reported write to the timeline, and records it for a running build
+    private synchronized void apply(Consumer<TransitionTimeline> write) {
+        if (buildWrites != null) {
+            buildWrites.add(write);
+        }
+        if (built) {
+            long previousDeadline = timeline.nextDeadline();
+            write.accept(timeline);
+            notifyDeadline(previousDeadline);
+        }
+    }
+
+    private void notifyDeadline(long previousDeadline) {
+        Runnable listener = deadlineListener;
+        if (listener != null && timeline.nextDeadline() != previousDeadline) {
+            listener.run();
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package hua.dit.taskmanagement.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+// In-memory index of upcoming status transitions, ordered by (transition time, uid)
+// Every tracked task has one pending transition time and optionally the time of the transition
+// after it: a recorded task transitions at its start and then at its end, an in-progress task
+// only at its end.
+// Entries live in a binary min-heap of parallel primitive arrays with a primitive uid -> heap
+// position hash map; a bulk loaded timeline of a million entries takes about 36 MB.
+// Writes take O(log n), the next deadline is a volatile read and "due by T" walks only the k due
+// entries of the heap in O(k log k). Writers are serialized by a lock; readers read
+// optimistically and retry if a write raced with them. Only a reader that lost
+// OPTIMISTIC_ATTEMPTS races in a row takes the read lock, so a steady stream of writes
+// cannot starve it.
+public final class TransitionTimeline {
+    // Marks a missing follow-up transition
+    public static final long NO_TIME = Long.MIN_VALUE;
+    // Returned by nextDeadline when nothing is tracked
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY = Integer.MIN_VALUE;
+    // Optimistic reads a reader tries before it falls back to the read lock
+    private static final int OPTIMISTIC_ATTEMPTS = 4;
+
+    private final StampedLock lock = new StampedLock();
+
+    // Heap of entries: times[0] / uids[0] is the earliest transition
+    private long[] times = new long[INITIAL_CAPACITY];
+    private long[] nextTimes = new long[INITIAL_CAPACITY];
+    private int[] uids = new int[INITIAL_CAPACITY];
+    private int size;
+
+    // Open addressing hash map from uid to heap position, linear probing without tombstones
+    private int[] slotKeys = newSlots(INITIAL_CAPACITY * 2);
+    private int[] slotPositions = new int[INITIAL_CAPACITY * 2];
+
+    // Earliest transition time, published after every write
+    private volatile long nextDeadline = NO_DEADLINE;
+
+    // Returns the earliest pending transition time, or NO_DEADLINE
+    public long nextDeadline() {
+        return nextDeadline;
+    }
+
+    // Returns the number of tracked tasks
+    public int size() {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            int result = size;
+            if (stamp != 0 && lock.validate(stamp)) {
+                return result;
+            }
+        }
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Returns the pending transition time of a task, or NO_TIME if it is not tracked
+    public long getTime(int uid) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                long result = findTime(uid);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            }
+        }
+        long stamp = lock.readLock();
+        try {
+            return findTime(uid);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Returns the uids of every task whose pending transition time is at or before the given
+    // time, ordered by (time, uid)
+    public int[] dueBy(long time) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                int[] result = collectDue(time);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            }
+        }
+        long stamp = lock.readLock();
+        try {
+            return collectDue(time);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Tracks a task or replaces its pending transitions
+    public void put(int uid, long time, long nextTime) {
+        long stamp = lock.writeLock();
+        try {
+            int position = findPosition(uid);
+            if (position < 0) {
+                ensureCapacity(size + 1);
+                position = size++;
+                uids[position] = uid;
+                times[position] = time;
+                nextTimes[position] = nextTime;
+                mapInsert(uid, position);
+                siftUp(position);
+            } else {
+                times[position] = time;
+                nextTimes[position] = nextTime;
+                siftDown(siftUp(position));
+            }
+            publish();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Stops tracking a task, returns whether it was tracked
+    public boolean remove(int uid) {
+        long stamp = lock.writeLock();
+        try {
+            int position = findPosition(uid);
+            if (position < 0) {
+                return false;
+            }
+            removeAt(position);
+            publish();
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Applies every transition strictly before now, as a status sweep at that instant does:
+    // entries move on to their follow-up transition or are dropped. Returns the number applied
+    public int advance(long now) {
+        long stamp = lock.writeLock();
+        try {
+            int applied = 0;
+            while (size > 0 && times[0] < now) {
+                if (nextTimes[0] != NO_TIME) {
+                    times[0] = nextTimes[0];
+                    nextTimes[0] = NO_TIME;
+                    siftDown(0);
+                } else {
+                    removeAt(0);
+                }
+                applied++;
+            }
+            publish();
+            return applied;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Replaces the whole timeline with the given entries, in O(n)
+    public void load(int[] entryUids, long[] entryTimes, long[] entryNextTimes, int count) {
+        long stamp = lock.writeLock();
+        try {
+            int capacity = Math.max(INITIAL_CAPACITY, count);
+            uids = Arrays.copyOf(entryUids, capacity);
+            times = Arrays.copyOf(entryTimes, capacity);
+            nextTimes = Arrays.copyOf(entryNextTimes, capacity);
+            size = count;
+            slotKeys = newSlots(slotCapacityFor(capacity));
+            slotPositions = new int[slotKeys.length];
+            for (int i = 0; i < count; i++) {
+                if (findPosition(uids[i]) >= 0) {
+                    throw new IllegalArgumentException("Duplicate uid: " + uids[i]);
+                }
+                mapInsert(uids[i], i);
+            }
+            // Floyd's heap construction
+            for (int i = (count >>> 1) - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+            publish();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Drops every entry
+    public void clear() {
+        load(new int[0], new long[0], new long[0], 0);
+    }
+
+    // Walks the heap from the root in (time, uid) order using a small auxiliary heap of
+    // candidate positions; a node is only visited if its parent was due
+    // May run without the lock, so every position is bounds checked against the local arrays
+    private int[] collectDue(long time) {
+        long[] heapTimes = times;
+        int[] heapUids = uids;
+        int count = Math.min(size, Math.min(heapTimes.length, heapUids.length));
+
+        int[] result = new int[0];
+        int resultSize = 0;
+        if (count == 0 || heapTimes[0] > time) {
+            return result;
+        }
+
+        int[] candidates = new int[16];
+        int candidateCount = 0;
+        candidates[candidateCount++] = 0;
+        result = new int[16];
+        while (candidateCount > 0) {
+            // Pop the earliest candidate
+            int position = candidates[0];
+            candidates[0] = candidates[--candidateCount];
+            siftDownCandidates(candidates, candidateCount, heapTimes, heapUids);
+
+            if (resultSize == result.length) {
+                result = Arrays.copyOf(result, resultSize * 2);
+            }
+            result[resultSize++] = heapUids[position];
+
+            // Its children are the only new entries that can be next
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < count; child++) {
+                if (heapTimes[child] <= time) {
+                    if (candidateCount == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                    }
+                    candidates[candidateCount] = child;
+                    siftUpCandidates(candidates, candidateCount++, heapTimes, heapUids);
+                }
+            }
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    private static void siftUpCandidates(int[] heap, int index, long[] heapTimes, int[] heapUids) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(heapTimes, heapUids, value, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDownCandidates(int[] heap, int count, long[] heapTimes, int[] heapUids) {
+        if (count == 0) {
+            return;
+        }
+        int index = 0;
+        int value = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= count) {
+                break;
+            }
+            if (child + 1 < count && less(heapTimes, heapUids, heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heapTimes, heapUids, heap[child], value)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    private static boolean less(long[] heapTimes, int[] heapUids, int a, int b) {
+        return heapTimes[a] < heapTimes[b] || (heapTimes[a] == heapTimes[b] && heapUids[a] < heapUids[b]);
+    }
+
+    private void publish() {
+        nextDeadline = size > 0 ? times[0] : NO_DEADLINE;
+    }
+
+    private long findTime(int uid) {
+        int[] keys = slotKeys;
+        int[] positions = slotPositions;
+        long[] heapTimes = times;
+        int mask = Math.min(keys.length, positions.length) - 1;
+        for (int slot = hash(uid) & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            int key = keys[slot];
+            if (key == EMPTY) {
+                return NO_TIME;
+            }
+            if (key == uid) {
+                int position = positions[slot];
+                return position >= 0 && position < heapTimes.length ? heapTimes[position] : NO_TIME;
+            }
+        }
+        return NO_TIME;
+    }
+
+    private void removeAt(int position) {
+        mapRemove(uids[position]);
+        int last = --size;
+        if (position != last) {
+            move(last, position);
+            siftDown(siftUp(position));
+        }
+    }
+
+    // Restores the heap upwards from a position and returns the entry's final position
+    private int siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!less(times, uids, position, parent)) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+        return position;
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && less(times, uids, child + 1, child)) {
+                child++;
+            }
+            if (!less(times, uids, child, position)) {
+                return;
+            }
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long time = times[a];
+        long nextTime = nextTimes[a];
+        int uid = uids[a];
+        times[a] = times[b];
+        nextTimes[a] = nextTimes[b];
+        uids[a] = uids[b];
+        times[b] = time;
+        nextTimes[b] = nextTime;
+        uids[b] = uid;
+        mapUpdate(uids[a], a);
+        mapUpdate(uid, b);
+    }
+
+    private void move(int from, int to) {
+        times[to] = times[from];
+        nextTimes[to] = nextTimes[from];
+        uids[to] = uids[from];
+        mapUpdate(uids[to], to);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > uids.length) {
+            int newCapacity = Math.max(capacity, uids.length + (uids.length >>> 1));
+            times = Arrays.copyOf(times, newCapacity);
+            nextTimes = Arrays.copyOf(nextTimes, newCapacity);
+            uids = Arrays.copyOf(uids, newCapacity);
+        }
+        if (slotCapacityFor(capacity) > slotKeys.length) {
+            rehash(slotCapacityFor(capacity));
+        }
+    }
+
+    // Map operations, only called under the write lock
+
+    private int findPosition(int uid) {
+        int mask = slotKeys.length - 1;
+        for (int slot = hash(uid) & mask; ; slot = (slot + 1) & mask) {
+            int key = slotKeys[slot];
+            if (key == EMPTY) {
+                return -1;
+            }
+            if (key == uid) {
+                return slotPositions[slot];
+            }
+        }
+    }
+
+    private void mapInsert(int uid, int position) {
+        int mask = slotKeys.length - 1;
+        int slot = hash(uid) & mask;
+        while (slotKeys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        slotKeys[slot] = uid;
+        slotPositions[slot] = position;
+    }
+
+    private void mapUpdate(int uid, int position) {
+        int mask = slotKeys.length - 1;
+        int slot = hash(uid) & mask;
+        while (slotKeys[slot] != uid) {
+            slot = (slot + 1) & mask;
+        }
+        slotPositions[slot] = position;
+    }
+
+    private void mapRemove(int uid) {
+        int mask = slotKeys.length - 1;
+        int slot = hash(uid) & mask;
+        while (slotKeys[slot] != uid) {
+            slot = (slot + 1) & mask;
+        }
+        // Shift later entries of the probe sequence back into the gap
+        int gap = slot;
+        for (slot = (gap + 1) & mask; slotKeys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int home = hash(slotKeys[slot]) & mask;
+            // Move the entry if its home does not lie cyclically in (gap, slot]
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                slotKeys[gap] = slotKeys[slot];
+                slotPositions[gap] = slotPositions[slot];
+                gap = slot;
+            }
+        }
+        slotKeys[gap] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = slotKeys;
+        int[] oldPositions = slotPositions;
+        slotKeys = newSlots(capacity);
+        slotPositions = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                mapInsert(oldKeys[i], oldPositions[i]);
+            }
+        }
+    }
+
+    // Keeps the map at most half full
+    private static int slotCapacityFor(int entries) {
+        int capacity = INITIAL_CAPACITY * 2;
+        while (capacity < entries * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static int hash(int uid) {
+        int h = uid * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -4,20 +4,27 @@ import android.content.Context;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.work.Data;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
-import java.util.List;
-
-import hua.dit.taskmanagement.entities.Task;
 import hua.dit.taskmanagement.repositories.TaskRepository;
 import hua.dit.taskmanagement.repositories.TaskRepositoryManager;
-import hua.dit.taskmanagement.utils.TaskStatusManager;
+import hua.dit.taskmanagement.utils.TaskStatusSweeper;
 
-//A background worker class that periodically checks and updates the status of tasks.
-//This worker extends AndroidX Worker to handle background processing of task status updates.
+//A background worker class that checks and updates the status of tasks.
+//TaskTransitionScheduler runs it as one-shot work at the moment the next status transition is due.
 public class TaskStatusCheckWorker extends Worker {
     private static final String TAG = "TaskStatusCheckWorker";
+
+    // Keys of the output data reported by a finished sweep
+    public static final String KEY_ROWS_SCANNED = "rows_scanned";
+    public static final String KEY_ROWS_TRANSITIONED = "rows_transitioned";
+    public static final String KEY_ROWS_STARTED = "rows_started";
+    public static final String KEY_ROWS_EXPIRED = "rows_expired";
+    public static final String KEY_ELAPSED_MILLIS = "elapsed_millis";
+    public static final String KEY_SKIPPED = "skipped";
+
     private final TaskRepository taskRepository;
 
     // Constructor initializes the worker with context and parameters.
@@ -32,62 +39,42 @@ public class TaskStatusCheckWorker extends Worker {
     }
 
     // Executes the main work of checking and updating task statuses.
-    // Retrieves non-completed tasks and processes their status transitions.
+    // Runs a set-based sweep that moves due tasks to in-progress and expired. The sweep runs on
+    // the worker's own background thread and completes before the worker reports its result,
+    // which carries the sweep metrics as output data.
     @NonNull
     @Override
     public Result doWork() {
         Log.i(TAG, "doWork() START - Checking task statuses");
 
-        // Retrieve all non-completed tasks and process them
-        taskRepository.getNonCompletedTasks(new TaskRepository.DataCallback<List<Task>>() {
-            @Override
-            public void onDataLoaded(List<Task> tasks) {
-                // Iterate through each task to check and update its status
-                for (Task task : tasks) {
-                    Log.i(TAG, "Checking task: " + task.getUid());
-
-                    String currentStatus = task.getStatus();
-                    String newStatus = TaskStatusManager.determineTaskStatus(task);
-
-                    // Check if status needs to be updated and if the transition is valid
-                    if (!currentStatus.equals(newStatus) &&
-                            TaskStatusManager.canTransitionTo(currentStatus, newStatus)) {
-
-                        Log.i(TAG, "Updating task " + task.getUid() + " status from " +
-                                currentStatus + " to " + newStatus);
-
-                        task.setStatus(newStatus);
-                        updateTaskStatus(task, currentStatus, newStatus);
-
-                        // Add delay between updates to prevent overwhelming the system
-                        try { Thread.sleep(1000); } catch (Throwable t) {}
-                    }
-                }
-            }
-
-            @Override
-            public void onError(String error) {
-                Log.e(TAG, "Error checking task statuses: " + error);
-            }
-        });
-
-        Log.i(TAG, "doWork() END");
-        return Result.success();
-    }
-
-    // Updates the task status in the repository and logs the transition.
-    private void updateTaskStatus(Task task, String oldStatus, String newStatus) {
-        taskRepository.updateTaskStatus(task.getUid(), newStatus, new TaskRepository.OperationCallback() {
-            @Override
-            public void onSuccess(long result) {
-                Log.i(TAG, "Successfully updated task " + task.getUid() + " status");
-                TaskStatusManager.logStatusTransition(task, oldStatus, newStatus);
-            }
+        TaskTransitionScheduler scheduler = TaskTransitionScheduler.getInstance(getApplicationContext());
+        scheduler.onSweepStarted(getInputData().getInt(TaskTransitionScheduler.KEY_SLOT, -1));
+        TaskStatusSweeper.Result result;
+        try {
+            result = taskRepository.sweepTaskStatusesNow();
+        } catch (Exception e) {
+            // The sweep is idempotent, so a failed run is simply retried
+            Log.e(TAG, "Error checking task statuses", e);
+            return Result.retry();
+        } finally {
+            // Schedule the sweep for the next transition
+            scheduler.onSweepFinished();
+        }
 
-            @Override
-            public void onError(String error) {
-                Log.e(TAG, "Error updating task " + task.getUid() + " status: " + error);
-            }
-        });
+        if (result.isSkipped()) {
+            Log.i(TAG, "doWork() END - Skipped, no transition is due");
+            return Result.success(new Data.Builder().putBoolean(KEY_SKIPPED, true).build());
+        }
+        Log.i(TAG, "doWork() END - Updated " + result.getTransitionCount() + " of " +
+                result.getScannedCount() + " task statuses (" +
+                result.getStartedCount() + " in-progress, " +
+                result.getExpiredCount() + " expired) in " + result.getElapsedMillis() + " ms");
+        return Result.success(new Data.Builder()
+                .putInt(KEY_ROWS_SCANNED, result.getScannedCount())
+                .putInt(KEY_ROWS_TRANSITIONED, result.getTransitionCount())
+                .putInt(KEY_ROWS_STARTED, result.getStartedCount())
+                .putInt(KEY_ROWS_EXPIRED, result.getExpiredCount())
+                .putLong(KEY_ELAPSED_MILLIS, result.getElapsedMillis())
+                .build());
     }
 }
@@ -0,0 +1,198 @@
+package hua.dit.taskmanagement.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hua.dit.taskmanagement.dao.TaskDao;
+import hua.dit.taskmanagement.database.TaskDatabase;
+import hua.dit.taskmanagement.utils.TaskStatusManager;
+import hua.dit.taskmanagement.utils.TaskTransitionIndex;
+import hua.dit.taskmanagement.utils.TransitionTimeline;
+
+// Schedules TaskStatusCheckWorker for the moment the next status transition is due
+// instead of polling every task on a fixed period.
+// The next instant is the earliest start of a recorded task or end of an in-progress task, read
+// from the in-memory TaskTransitionIndex once it is built and from the database until then.
+// It is recomputed whenever the index reports a new earliest transition, whenever the tasks
+// table changes, and once more after every sweep.
+// Only the repository and the provider report their writes to the index; direct DAO users and
+// other processes do not. So after a table change or a sweep the database is read as well, and
+// an earlier transition there than in the index reloads the index, which sweeps rely on to
+// decide whether anything is due.
+public class TaskTransitionScheduler {
+    private static final String TAG = "TaskTransitionScheduler";
+
+    // Unique work names of the one-shot sweep. Two names alternate so that rescheduling while a
+    // sweep runs enqueues the next sweep next to it instead of replacing, and so cancelling, it
+    private static final String WORK_NAME_PREFIX = "task_status_transition_";
+
+    // Unique name of the hourly polling work this scheduler replaces
+    private static final String LEGACY_PERIODIC_WORK_NAME = "task_status_check";
+
+    // Input data key holding the unique work name slot of a scheduled sweep
+    static final String KEY_SLOT = "slot";
+
+    // Marks that no sweep is scheduled
+    private static final long NOT_SCHEDULED = Long.MIN_VALUE;
+
+    private static volatile TaskTransitionScheduler instance;
+
+    private final WorkManager workManager;
+    private final TaskDao taskDao;
+    private final TaskTransitionIndex transitionIndex;
+    // Source of the current time the sweep delay is measured from
+    private final TaskStatusManager.Clock clock;
+
+    // Recomputations run one at a time; requests arriving while one is queued are coalesced
+    private final Executor executor;
+    private final AtomicBoolean reschedulePending = new AtomicBoolean();
+    // Whether the next recomputation reads the database, see reschedule
+    private final AtomicBoolean databaseChanged = new AtomicBoolean();
+
+    // Scheduling state, guarded by this
+    private int slot;
+    // Slot of the most recent sweep, which may still be finishing
+    private int sweepSlot = -1;
+    private long scheduledTime = NOT_SCHEDULED;
+
+    private TaskTransitionScheduler(Context context) {
+        this(WorkManager.getInstance(context), TaskDatabase.getInstance(context),
+                TaskTransitionIndex.getInstance(context), TaskStatusManager.Clock.SYSTEM,
+                Executors.newSingleThreadExecutor());
+    }
+
+    // Recomputations run on the executor, which must run them one at a time
+    TaskTransitionScheduler(WorkManager workManager, TaskDatabase database,
+                            TaskTransitionIndex transitionIndex, TaskStatusManager.Clock clock,
+                            Executor executor) {
+        this.workManager = workManager;
+        this.taskDao = database.taskDao();
+        this.transitionIndex = transitionIndex;
+        this.clock = clock;
+        this.executor = executor;
+
+        // Writes reported to the index move the next transition as soon as they are applied
+        transitionIndex.setDeadlineListener(this::requestReschedule);
+        // Any other write to the tasks table may move it too, the index is not told of every
+        // write and is not built yet right after startup
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("tasks") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                databaseChanged.set(true);
+                requestReschedule();
+            }
+        });
+    }
+
+    // Gets or creates the singleton instance
+    public static TaskTransitionScheduler getInstance(Context context) {
+        if (instance == null) {
+            synchronized (TaskTransitionScheduler.class) {
+                if (instance == null) {
+                    instance = new TaskTransitionScheduler(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Drops the hourly polling work of earlier versions and schedules the next due sweep
+    public void start() {
+        workManager.cancelUniqueWork(LEGACY_PERIODIC_WORK_NAME);
+        requestReschedule();
+    }
+
+    // Recomputes the next transition in the background
+    public void requestReschedule() {
+        if (reschedulePending.compareAndSet(false, true)) {
+            executor.execute(this::reschedule);
+        }
+    }
+
+    // Called by the worker before it sweeps, with the slot it was scheduled in
+    // The slot comes from the work itself, which may have been scheduled by an earlier process
+    synchronized void onSweepStarted(int workSlot) {
+        sweepSlot = workSlot;
+        if (workSlot == slot) {
+            // The scheduled sweep is the one running now
+            scheduledTime = NOT_SCHEDULED;
+        }
+    }
+
+    // Called by the worker after it swept, the next transition is computed from the new state
+    // The worker is still running at this point, so the next sweep goes to the other slot
+    // The sweep may have found no row for a transition of the index, so the database is read too
+    void onSweepFinished() {
+        databaseChanged.set(true);
+        requestReschedule();
+    }
+
+    private void reschedule() {
+        reschedulePending.set(false);
+        boolean readDatabase = databaseChanged.getAndSet(false);
+        Long next;
+        try {
+            if (transitionIndex.isBuilt()) {
+                long deadline = transitionIndex.nextDeadline();
+                if (readDatabase) {
+                    Long stored = taskDao.getNextTransitionTime();
+                    if (stored != null && stored < deadline) {
+                        // A write the index was not told about; reload it so that the sweep
+                        // does not skip the transition
+                        Log.d(TAG, "Transition at " + stored + " missing from the index, reloading");
+                        transitionIndex.build();
+                        deadline = Math.min(stored, transitionIndex.nextDeadline());
+                    }
+                }
+                next = deadline != TransitionTimeline.NO_DEADLINE ? deadline : null;
+            } else {
+                next = taskDao.getNextTransitionTime();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error computing the next transition", e);
+            return;
+        }
+
+        synchronized (this) {
+            if (next == null) {
+                // Nothing is due; keep a running sweep but drop a pending one
+                if (scheduledTime != NOT_SCHEDULED && slot != sweepSlot) {
+                    workManager.cancelUniqueWork(WORK_NAME_PREFIX + slot);
+                }
+                scheduledTime = NOT_SCHEDULED;
+                Log.d(TAG, "No transition due");
+                return;
+            }
+            if (next == scheduledTime) {
+                return;
+            }
+            // Never replace the most recent sweep, it may be running right now
+            if (slot == sweepSlot) {
+                slot ^= 1;
+            }
+
+            // Sweeps move tasks whose instant lies strictly before now, so run just after it
+            long delay = Math.max(0, next + 1 - clock.now());
+            OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(TaskStatusCheckWorker.class)
+                    .setInitialDelay(delay, TimeUnit.MILLISECONDS)
+                    .setInputData(new Data.Builder().putInt(KEY_SLOT, slot).build())
+                    .build();
+            workManager.enqueueUniqueWork(WORK_NAME_PREFIX + slot, ExistingWorkPolicy.REPLACE, request);
+            scheduledTime = next;
+            Log.d(TAG, "Next transition at " + next + ", sweep in " + delay + " ms");
+        }
+    }
+}
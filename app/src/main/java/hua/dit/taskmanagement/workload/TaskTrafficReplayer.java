@@ -0,0 +1,229 @@
+package hua.dit.taskmanagement.workload;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import hua.dit.taskmanagement.dao.TaskDao;
+import hua.dit.taskmanagement.entities.TaskStatus;
+import hua.dit.taskmanagement.provider.TaskContentProvider;
+
+// Replays a seeded mix of single-task reads, status updates and deletes at a target rate
+// Operations are issued on a fixed schedule whether or not earlier ones finished in time, so a
+// slow store shows up as latency and a lower achieved rate instead of being hidden
+// Blocks the calling thread until the replay ends, call off the main thread
+public final class TaskTrafficReplayer {
+    // Statuses written by updates
+    private static final TaskStatus[] UPDATE_STATUSES = {
+            TaskStatus.RECORDED, TaskStatus.IN_PROGRESS, TaskStatus.COMPLETED};
+
+    // Store the traffic is sent to; each operation returns whether the task existed
+    public interface Target {
+        boolean read(int uid);
+
+        boolean update(int uid, TaskStatus status);
+
+        boolean delete(int uid);
+    }
+
+    private final Target target;
+    private final Random random;
+    private final int readWeight;
+    private final int updateWeight;
+    private final int deleteWeight;
+    private volatile boolean cancelled;
+
+    // The weights set the share of each operation, e.g. 80, 15, 5
+    public TaskTrafficReplayer(Target target, long seed, int readWeight, int updateWeight,
+                               int deleteWeight) {
+        if (readWeight < 0 || updateWeight < 0 || deleteWeight < 0
+                || readWeight + updateWeight + deleteWeight == 0) {
+            throw new IllegalArgumentException("Invalid operation weights");
+        }
+        this.target = target;
+        this.random = new Random(seed);
+        this.readWeight = readWeight;
+        this.updateWeight = updateWeight;
+        this.deleteWeight = deleteWeight;
+    }
+
+    // Sends the traffic straight to the DAO
+    public static Target daoTarget(TaskDao taskDao) {
+        return new Target() {
+            @Override
+            public boolean read(int uid) {
+                return taskDao.getTaskById(uid) != null;
+            }
+
+            @Override
+            public boolean update(int uid, TaskStatus status) {
+                return taskDao.updateTaskStatus(uid, status) > 0;
+            }
+
+            @Override
+            public boolean delete(int uid) {
+                return taskDao.deleteById(uid) > 0;
+            }
+        };
+    }
+
+    // Sends the traffic through the task provider, as an external client would
+    public static Target providerTarget(ContentResolver resolver) {
+        return new Target() {
+            @Override
+            public boolean read(int uid) {
+                try (Cursor cursor = resolver.query(taskUri(uid), null, null, null, null)) {
+                    return cursor != null && cursor.moveToFirst();
+                }
+            }
+
+            @Override
+            public boolean update(int uid, TaskStatus status) {
+                ContentValues values = new ContentValues();
+                values.put("status", status.getLabel());
+                return resolver.update(taskUri(uid), values, null, null) > 0;
+            }
+
+            @Override
+            public boolean delete(int uid) {
+                return resolver.delete(taskUri(uid), null, null) > 0;
+            }
+        };
+    }
+
+    private static Uri taskUri(int uid) {
+        return ContentUris.withAppendedId(TaskContentProvider.CONTENT_URI, uid);
+    }
+
+    // Stops a running replay after its current operation
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Issues the given number of operations on uids drawn uniformly from [minUid, maxUid] at the
+    // target rate in operations per second
+    public Result replay(int minUid, int maxUid, int operations, double operationsPerSecond) {
+        if (maxUid < minUid || operations < 0 || operationsPerSecond <= 0) {
+            throw new IllegalArgumentException("Invalid replay parameters");
+        }
+        cancelled = false;
+        long intervalNanos = (long) (1e9 / operationsPerSecond);
+        long[] latencies = new long[operations];
+        int[] counts = new int[3];
+        int hits = 0;
+        int done = 0;
+        long start = System.nanoTime();
+        while (done < operations && !cancelled) {
+            long due = start + done * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            int uid = minUid + random.nextInt(maxUid - minUid + 1);
+            int kind = nextKind();
+            boolean hit;
+            switch (kind) {
+                case 0:
+                    hit = target.read(uid);
+                    break;
+                case 1:
+                    hit = target.update(uid, UPDATE_STATUSES[random.nextInt(UPDATE_STATUSES.length)]);
+                    break;
+                default:
+                    hit = target.delete(uid);
+                    break;
+            }
+            // Measured from the scheduled time, so queueing behind a slow operation counts
+            latencies[done++] = System.nanoTime() - due;
+            counts[kind]++;
+            if (hit) {
+                hits++;
+            }
+        }
+        return new Result(counts[0], counts[1], counts[2], hits,
+                (System.nanoTime() - start) / 1_000_000, Arrays.copyOf(latencies, done));
+    }
+
+    private int nextKind() {
+        int roll = random.nextInt(readWeight + updateWeight + deleteWeight);
+        if (roll < readWeight) {
+            return 0;
+        }
+        return roll < readWeight + updateWeight ? 1 : 2;
+    }
+
+    // Operations issued by a replay, how many found their task, and their latencies
+    public static final class Result {
+        private final int reads;
+        private final int updates;
+        private final int deletes;
+        private final int hits;
+        private final long elapsedMillis;
+        private final long[] sortedLatencies;
+
+        Result(int reads, int updates, int deletes, int hits, long elapsedMillis, long[] latencies) {
+            this.reads = reads;
+            this.updates = updates;
+            this.deletes = deletes;
+            this.hits = hits;
+            this.elapsedMillis = elapsedMillis;
+            this.sortedLatencies = latencies;
+            Arrays.sort(sortedLatencies);
+        }
+
+        public int getReads() {
+            return reads;
+        }
+
+        public int getUpdates() {
+            return updates;
+        }
+
+        public int getDeletes() {
+            return deletes;
+        }
+
+        public int getOperations() {
+            return reads + updates + deletes;
+        }
+
+        // Operations whose task existed
+        public int getHits() {
+            return hits;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        // Rate actually reached, in operations per second
+        public double getAchievedRate() {
+            return elapsedMillis > 0 ? getOperations() * 1000.0 / elapsedMillis : 0;
+        }
+
+        // Latency in nanoseconds at a percentile between 0 and 100, or 0 without operations
+        public long getLatencyPercentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+        }
+
+        @Override
+        public String toString() {
+            return "reads=" + reads + ", updates=" + updates + ", deletes=" + deletes +
+                    ", hits=" + hits + ", elapsedMillis=" + elapsedMillis +
+                    ", rate=" + Math.round(getAchievedRate()) + "/s" +
+                    ", p50=" + getLatencyPercentile(50) / 1_000 + "us" +
+                    ", p99=" + getLatencyPercentile(99) / 1_000 + "us";
+        }
+    }
+}
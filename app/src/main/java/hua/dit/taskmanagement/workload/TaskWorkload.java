@@ -0,0 +1,294 @@
+package hua.dit.taskmanagement.workload;
+
+import java.util.Date;
+import java.util.Random;
+
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+// Seedable generator of synthetic tasks for tests, benchmarks and the debug screen
+// The same settings and seed always produce the same tasks. Start times follow the status: expired
+// and completed tasks lie in the past, in-progress tasks started within their duration and
+// recorded tasks lie ahead, all aligned to a granularity as real start times are
+public final class TaskWorkload {
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    private static final String[] NAME_WORDS = {"Weekly", "Team", "Project", "Client", "Budget",
+            "Lab", "Thesis", "Library", "Design", "Exam", "Lecture", "Invoice"};
+    private static final String[] NAME_NOUNS = {"report", "meeting", "review", "call", "plan",
+            "session", "draft", "visit", "sync", "notes", "deadline", "presentation"};
+    private static final String[] DESCRIPTION_WORDS = {"collect", "numbers", "from", "all", "teams",
+            "and", "send", "the", "summary", "before", "friday", "check", "open", "issues", "with",
+            "client", "prepare", "slides", "for", "review", "book", "room", "update", "budget"};
+
+    private final Random random;
+    private final long now;
+    private final int[] statusWeights;
+    private final int statusWeightTotal;
+    private final long pastMillis;
+    private final long futureMillis;
+    private final long granularityMillis;
+    private final int minDurationHours;
+    private final int maxDurationHours;
+    private final int nullDurationPercent;
+    private final String[] locations;
+    private final int[] locationWeights;
+    private final int locationWeightTotal;
+    private final int minDescriptionLength;
+    private final int maxDescriptionLength;
+    private final int nullDescriptionPercent;
+    private final int nullStartTimePercent;
+    private int generated;
+
+    private TaskWorkload(Builder builder) {
+        random = new Random(builder.seed);
+        now = builder.now;
+        statusWeights = builder.statusWeights.clone();
+        statusWeightTotal = sum(statusWeights);
+        pastMillis = builder.pastDays * MILLIS_PER_DAY;
+        futureMillis = builder.futureDays * MILLIS_PER_DAY;
+        granularityMillis = builder.granularityMinutes * MILLIS_PER_MINUTE;
+        minDurationHours = builder.minDurationHours;
+        maxDurationHours = builder.maxDurationHours;
+        nullDurationPercent = builder.nullDurationPercent;
+        locations = builder.locations.clone();
+        locationWeights = builder.locationWeights.clone();
+        locationWeightTotal = sum(locationWeights);
+        minDescriptionLength = builder.minDescriptionLength;
+        maxDescriptionLength = builder.maxDescriptionLength;
+        nullDescriptionPercent = builder.nullDescriptionPercent;
+        nullStartTimePercent = builder.nullStartTimePercent;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Instant the start times are generated around
+    public long getNow() {
+        return now;
+    }
+
+    // Number of tasks generated so far
+    public int getGenerated() {
+        return generated;
+    }
+
+    // Generates the next task
+    public Task next() {
+        TaskStatus status = nextStatus();
+        Integer duration = percent(nullDurationPercent) ? null
+                : minDurationHours + random.nextInt(maxDurationHours - minDurationHours + 1);
+        long startTime = startTimeFor(status, duration != null ? duration : maxDurationHours);
+        Task task = new Task(
+                NAME_WORDS[random.nextInt(NAME_WORDS.length)] + " " +
+                        NAME_NOUNS[random.nextInt(NAME_NOUNS.length)] + " " + (generated + 1),
+                percent(nullDescriptionPercent) ? null : nextDescription(),
+                percent(nullStartTimePercent) ? null : new Date(startTime),
+                duration,
+                locations[pick(locationWeights, locationWeightTotal)]);
+        task.setStatus(status);
+        generated++;
+        return task;
+    }
+
+    private TaskStatus nextStatus() {
+        switch (pick(statusWeights, statusWeightTotal)) {
+            case 0: return TaskStatus.EXPIRED;
+            case 1: return TaskStatus.IN_PROGRESS;
+            case 2: return TaskStatus.RECORDED;
+            default: return TaskStatus.COMPLETED;
+        }
+    }
+
+    private long startTimeFor(TaskStatus status, int durationHours) {
+        long durationMillis = durationHours * MILLIS_PER_HOUR;
+        long startTime;
+        switch (status) {
+            case EXPIRED:
+                // Ended before now
+                startTime = now - durationMillis - 1 - nextLong(pastMillis);
+                break;
+            case IN_PROGRESS:
+                // Started, not yet ended
+                startTime = now - 1 - nextLong(durationMillis);
+                break;
+            case RECORDED:
+                startTime = now + 1 + nextLong(futureMillis);
+                break;
+            default:
+                startTime = now - nextLong(pastMillis);
+                break;
+        }
+        // Aligned in the direction that keeps the status matching the start time
+        long aligned = startTime - Math.floorMod(startTime, granularityMillis);
+        switch (status) {
+            case RECORDED:
+                return aligned + granularityMillis;
+            case IN_PROGRESS:
+                return aligned + granularityMillis < now ? aligned + granularityMillis : aligned;
+            default:
+                return aligned;
+        }
+    }
+
+    private String nextDescription() {
+        int length = minDescriptionLength +
+                random.nextInt(maxDescriptionLength - minDescriptionLength + 1);
+        StringBuilder description = new StringBuilder(length + 16);
+        while (description.length() < length) {
+            if (description.length() > 0) {
+                description.append(' ');
+            }
+            description.append(DESCRIPTION_WORDS[random.nextInt(DESCRIPTION_WORDS.length)]);
+        }
+        description.setLength(length);
+        return description.toString();
+    }
+
+    // Uniform in [0, bound), or 0 for an empty range
+    private long nextLong(long bound) {
+        return bound <= 0 ? 0 : (long) (random.nextDouble() * bound);
+    }
+
+    private boolean percent(int percent) {
+        return percent > 0 && random.nextInt(100) < percent;
+    }
+
+    // Index drawn with probability proportional to its weight
+    private int pick(int[] weights, int total) {
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static int sum(int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    // Settings of a workload; the defaults resemble a long-used task list
+    public static final class Builder {
+        private long seed = 1;
+        private long now = System.currentTimeMillis();
+        private int[] statusWeights = {10, 10, 50, 30};
+        private long pastDays = 60;
+        private long futureDays = 90;
+        private long granularityMinutes = 15;
+        private int minDurationHours = 1;
+        private int maxDurationHours = 8;
+        private int nullDurationPercent = 5;
+        private String[] locations = {"Office", "Home", "Campus", "Library", "Online"};
+        private int[] locationWeights = {40, 25, 20, 10, 5};
+        private int minDescriptionLength = 20;
+        private int maxDescriptionLength = 200;
+        private int nullDescriptionPercent = 20;
+        private int nullStartTimePercent = 1;
+
+        private Builder() {}
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        // Instant the start times are generated around
+        public Builder now(long now) {
+            this.now = now;
+            return this;
+        }
+
+        // Relative weights of expired, in-progress, recorded and completed tasks
+        public Builder statusWeights(int expired, int inProgress, int recorded, int completed) {
+            int[] weights = {expired, inProgress, recorded, completed};
+            requireWeights(weights);
+            statusWeights = weights;
+            return this;
+        }
+
+        // How far start times reach into the past and the future, and the granularity they are
+        // aligned to
+        public Builder startTimes(long pastDays, long futureDays, long granularityMinutes) {
+            if (pastDays < 0 || futureDays < 0 || granularityMinutes < 1) {
+                throw new IllegalArgumentException("Invalid start time range");
+            }
+            this.pastDays = pastDays;
+            this.futureDays = futureDays;
+            this.granularityMinutes = granularityMinutes;
+            return this;
+        }
+
+        // Uniform range of durations in hours and the share of tasks without a duration
+        public Builder durations(int minHours, int maxHours, int nullPercent) {
+            if (minHours < 0 || maxHours < minHours) {
+                throw new IllegalArgumentException("Invalid duration range");
+            }
+            minDurationHours = minHours;
+            maxDurationHours = maxHours;
+            nullDurationPercent = requirePercent(nullPercent);
+            return this;
+        }
+
+        // Locations and their relative weights
+        public Builder locations(String[] names, int[] weights) {
+            if (names.length == 0 || names.length != weights.length) {
+                throw new IllegalArgumentException("Every location needs one weight");
+            }
+            requireWeights(weights);
+            locations = names.clone();
+            locationWeights = weights.clone();
+            return this;
+        }
+
+        // Uniform range of description lengths and the share of tasks without a description
+        public Builder descriptions(int minLength, int maxLength, int nullPercent) {
+            if (minLength < 0 || maxLength < minLength) {
+                throw new IllegalArgumentException("Invalid description length range");
+            }
+            minDescriptionLength = minLength;
+            maxDescriptionLength = maxLength;
+            nullDescriptionPercent = requirePercent(nullPercent);
+            return this;
+        }
+
+        // Share of tasks without a start time
+        public Builder nullStartTimes(int percent) {
+            nullStartTimePercent = requirePercent(percent);
+            return this;
+        }
+
+        public TaskWorkload build() {
+            return new TaskWorkload(this);
+        }
+
+        private static void requireWeights(int[] weights) {
+            int total = 0;
+            for (int weight : weights) {
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Negative weight: " + weight);
+                }
+                total += weight;
+            }
+            if (total == 0) {
+                throw new IllegalArgumentException("At least one weight must be positive");
+            }
+        }
+
+        private static int requirePercent(int percent) {
+            if (percent < 0 || percent > 100) {
+                throw new IllegalArgumentException("Invalid percentage: " + percent);
+            }
+            return percent;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package hua.dit.taskmanagement.workload;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import hua.dit.taskmanagement.dao.TaskDao;
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.provider.TaskContentProvider;
+import hua.dit.taskmanagement.utils.DateFormats;
+
+// Loads generated tasks into the task store in batches, each batch in one transaction
+// Loading through the DAO skips the provider; loading through the ContentResolver takes the path
+// of an external client, including value parsing and change notifications
+// Performs I/O, call off the main thread
+public final class TaskWorkloadLoader {
+    // Rows per batch when the caller does not choose a size
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    private TaskWorkloadLoader() {}
+
+    // Inserts count tasks through the DAO and returns the number inserted
+    public static int loadThroughDao(TaskDao taskDao, TaskWorkload workload, int count, int batchSize) {
+        requireBatchSize(batchSize);
+        List<Task> batch = new ArrayList<>(Math.min(count, batchSize));
+        int inserted = 0;
+        for (int i = 0; i < count; i++) {
+            batch.add(workload.next());
+            if (batch.size() == batchSize || i == count - 1) {
+                inserted += taskDao.insertAll(batch).length;
+                batch.clear();
+            }
+        }
+        return inserted;
+    }
+
+    // Inserts count tasks with bulkInsert on the task provider and returns the number inserted
+    public static int loadThroughProvider(ContentResolver resolver, TaskWorkload workload,
+                                          int count, int batchSize) {
+        requireBatchSize(batchSize);
+        DateFormats dateFormats = DateFormats.getDefault();
+        ContentValues[] batch = new ContentValues[Math.min(count, batchSize)];
+        int filled = 0;
+        int inserted = 0;
+        for (int i = 0; i < count; i++) {
+            batch[filled++] = toValues(workload.next(), dateFormats);
+            if (filled == batch.length || i == count - 1) {
+                ContentValues[] values = batch;
+                if (filled < batch.length) {
+                    values = new ContentValues[filled];
+                    System.arraycopy(batch, 0, values, 0, filled);
+                }
+                inserted += resolver.bulkInsert(TaskContentProvider.CONTENT_URI, values);
+                filled = 0;
+            }
+        }
+        return inserted;
+    }
+
+    private static void requireBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+    }
+
+    // Converts a task to the values a provider client sends
+    // The provider format has whole seconds, so start times lose their milliseconds
+    static ContentValues toValues(Task task, DateFormats dateFormats) {
+        ContentValues values = new ContentValues();
+        values.put("short_name", task.getShortName());
+        values.put("description", task.getDescription());
+        if (task.getStartTime() != null) {
+            values.put("start_time", dateFormats.formatProvider(task.getStartTime().getTime()));
+        }
+        values.put("duration_hours", task.getDurationHours());
+        values.put("location", task.getLocation());
+        values.put("status", task.getStatus().getLabel());
+        return values;
+    }
+}
@@ -0,0 +1,94 @@
+package hua.dit.taskmanagement.dao;
+
+import android.app.Application;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import hua.dit.taskmanagement.database.TaskDatabase;
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+import hua.dit.taskmanagement.repositories.TaskPageKey;
+
+import static org.junit.Assert.assertEquals;
+
+// Checks that the keyset page queries agree with the full ordered list from every key,
+// including keys and rows without a start time
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 34)
+public class TaskDaoPageTest {
+    private static final long START_TIME = 1_700_000_000_000L;
+    private static final int PAGE_SIZE = 4;
+
+    private TaskDatabase db;
+    private TaskDao taskDao;
+
+    @Before
+    public void createDatabase() {
+        db = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(),
+                TaskDatabase.class).allowMainThreadQueries().build();
+        taskDao = db.taskDao();
+        List<Task> tasks = new ArrayList<>();
+        TaskStatus[] statuses = TaskStatus.values();
+        for (int i = 0; i < 40; i++) {
+            // Every status gets tasks without a start time and tasks sharing one
+            Date startTime = i % 3 == 0 ? null : new Date(START_TIME + (i % 5) * 60_000L);
+            Task task = new Task("Task " + i, null, startTime, 1, null);
+            task.setStatus(statuses[i % statuses.length]);
+            tasks.add(task);
+        }
+        taskDao.insertAll(tasks);
+    }
+
+    @After
+    public void closeDatabase() {
+        db.close();
+    }
+
+    @Test
+    public void pageFrom_continuesTheListAtEveryKey() {
+        List<Task> ordered = taskDao.getNonCompletedTasksFirstPage(Integer.MAX_VALUE);
+        List<Integer> list = uids(ordered);
+        for (int i = 0; i < ordered.size(); i++) {
+            TaskPageKey key = TaskPageKey.of(ordered.get(i));
+            assertEquals("From " + key, list.subList(i, Math.min(i + PAGE_SIZE, list.size())),
+                    uids(taskDao.getNonCompletedTasksPageFrom(key.getStatusRank(),
+                            key.getStartTime(), key.getUid(), PAGE_SIZE)));
+        }
+    }
+
+    @Test
+    public void pageBefore_walksTheListBackFromEveryKey() {
+        List<Task> ordered = taskDao.getNonCompletedTasksFirstPage(Integer.MAX_VALUE);
+        List<Integer> list = uids(ordered);
+        for (int i = 0; i < ordered.size(); i++) {
+            TaskPageKey key = TaskPageKey.of(ordered.get(i));
+            List<Integer> expected = new ArrayList<>();
+            for (int j = i - 1; j >= Math.max(0, i - PAGE_SIZE); j--) {
+                expected.add(list.get(j));
+            }
+            assertEquals("Before " + key, expected,
+                    uids(taskDao.getNonCompletedTasksPageBefore(key.getStatusRank(),
+                            key.getStartTime(), key.getUid(), PAGE_SIZE)));
+        }
+    }
+
+    private static List<Integer> uids(List<Task> tasks) {
+        List<Integer> uids = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            uids.add(task.getUid());
+        }
+        return uids;
+    }
+}
@@ -0,0 +1,236 @@
+package hua.dit.taskmanagement.dao;
+
+import android.app.Application;
+import android.content.ContentUris;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+
+import hua.dit.taskmanagement.database.TaskDatabase;
+import hua.dit.taskmanagement.entities.TaskStatus;
+import hua.dit.taskmanagement.export.CursorTaskRowSource;
+import hua.dit.taskmanagement.export.HtmlTaskRowSerializer;
+import hua.dit.taskmanagement.export.TaskExportEngine;
+import hua.dit.taskmanagement.provider.ProviderQueries;
+import hua.dit.taskmanagement.provider.TaskContentProvider;
+import hua.dit.taskmanagement.workload.TaskWorkload;
+import hua.dit.taskmanagement.workload.TaskWorkloadLoader;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+// Measures TaskDao and provider query latency and allocation on 10k, 100k and 1M synthetic tasks, on the JVM
+// The suite seeds for minutes, so it only runs when enabled with -Ptaskmanagement.perf=true;
+// -Ptaskmanagement.perf.sizes=10000,100000 narrows the dataset sizes. Each operation is checked
+// against the budgets in dao-performance-budgets.properties and reported on standard output
+// The application is replaced, so the app's startup work does not run in the test
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 34)
+public class TaskDaoPerformanceTest {
+    private static final String ENABLED_PROPERTY = "taskmanagement.perf";
+    private static final String SIZES_PROPERTY = "taskmanagement.perf.sizes";
+    private static final String BUDGET_PROPERTY_PREFIX = "taskmanagement.perf.budget.";
+    private static final String BUDGETS_RESOURCE = "/dao-performance-budgets.properties";
+
+    // Instant the dataset is generated around
+    private static final long NOW = 1_700_000_000_000L;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    // Runs of whole-table operations and of single-row operations
+    private static final int SCAN_RUNS = 5;
+    private static final int POINT_RUNS = 200;
+
+    private final int rows;
+    private TaskDatabase db;
+    private TaskDao taskDao;
+    private final Properties budgets = new Properties();
+    private final List<String> violations = new ArrayList<>();
+
+    public TaskDaoPerformanceTest(int rows) {
+        this.rows = rows;
+    }
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0} rows")
+    public static Collection<Object[]> sizes() {
+        List<Object[]> sizes = new ArrayList<>();
+        for (String size : System.getProperty(SIZES_PROPERTY, "10000,100000,1000000").split(",")) {
+            sizes.add(new Object[]{Integer.parseInt(size.trim())});
+        }
+        return sizes;
+    }
+
+    @Before
+    public void createDatabase() throws IOException {
+        assumeTrue("DAO performance suite disabled, enable with -P" + ENABLED_PROPERTY + "=true",
+                Boolean.getBoolean(ENABLED_PROPERTY));
+        try (InputStream in = getClass().getResourceAsStream(BUDGETS_RESOURCE)) {
+            if (in != null) {
+                budgets.load(in);
+            }
+        }
+        Context context = ApplicationProvider.getApplicationContext();
+        // Robolectric runs the test on the main thread
+        db = Room.inMemoryDatabaseBuilder(context, TaskDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        taskDao = db.taskDao();
+        seed();
+    }
+
+    @After
+    public void closeDatabase() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void operationsStayWithinBudget() {
+        Random random = new Random(7);
+
+        // Reads run first, so they measure the seeded dataset rather than one the updates changed
+        measure("getNonCompletedTasksOrdered", SCAN_RUNS,
+                run -> taskDao.getNonCompletedTasksOrdered().size());
+        measure("getTaskById", POINT_RUNS,
+                run -> taskDao.getTaskById(1 + random.nextInt(rows)).getUid());
+        // Provider reads run the SQL TaskContentProvider.query builds for the same request
+        measure("providerQueryAll", SCAN_RUNS, run -> {
+            try (Cursor cursor = db.query(ProviderQueries.query(TaskContentProvider.CONTENT_URI,
+                    null, null, null, null))) {
+                return readAll(cursor);
+            }
+        });
+        measure("providerQueryById", POINT_RUNS, run -> {
+            Uri uri = ContentUris.withAppendedId(TaskContentProvider.CONTENT_URI,
+                    1 + random.nextInt(rows));
+            try (Cursor cursor = db.query(ProviderQueries.query(uri, null, null, null, null))) {
+                return readAll(cursor);
+            }
+        });
+        measure("providerQueryByStatus", POINT_RUNS, run -> {
+            Uri uri = TaskContentProvider.CONTENT_URI.buildUpon()
+                    .appendQueryParameter(TaskContentProvider.QUERY_PARAMETER_LIMIT, "50")
+                    .build();
+            try (Cursor cursor = db.query(ProviderQueries.query(uri, null, "status = ?",
+                    new String[]{TaskStatus.RECORDED.getLabel()}, "start_time"))) {
+                return readAll(cursor);
+            }
+        });
+        measure("exportHtml", SCAN_RUNS, run -> {
+            try (Cursor cursor = taskDao.getNonCompletedTasksExportCursor()) {
+                return TaskExportEngine.export(new CursorTaskRowSource(cursor),
+                        new HtmlTaskRowSerializer(), new DiscardingWriter());
+            }
+        });
+        measure("updateTaskStatus", POINT_RUNS,
+                run -> taskDao.updateTaskStatus(1 + random.nextInt(rows),
+                        run % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.RECORDED));
+
+        assertTrue("Budgets exceeded at " + rows + " rows:\n" + String.join("\n", violations),
+                violations.isEmpty());
+    }
+
+    // One measured operation; the result is consumed so the work cannot be skipped
+    private interface Operation {
+        long run(int run) throws Exception;
+    }
+
+    // Runs an operation once to warm up, then the given number of times, and checks the median
+    // latency and the mean allocation of a run against their budgets
+    private void measure(String name, int runs, Operation operation) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long[] nanos = new long[runs];
+        long consumed = 0;
+        long allocatedBytes;
+        try {
+            consumed += operation.run(-1);
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            for (int run = 0; run < runs; run++) {
+                long start = System.nanoTime();
+                consumed += operation.run(run);
+                nanos[run] = System.nanoTime() - start;
+            }
+            allocatedBytes = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / runs;
+        } catch (Exception e) {
+            throw new AssertionError(name + " failed", e);
+        }
+        Arrays.sort(nanos);
+        double medianMillis = nanos[runs / 2] / 1e6;
+        System.out.println(String.format(Locale.ROOT,
+                "TaskDaoPerformance rows=%d operation=%s medianMillis=%.3f bytesPerRun=%d result=%d",
+                rows, name, medianMillis, allocatedBytes, consumed));
+        checkBudget(name, "millis", medianMillis);
+        checkBudget(name, "bytes", allocatedBytes);
+    }
+
+    private void checkBudget(String name, String unit, double value) {
+        String key = name + "." + rows + "." + unit;
+        String budget = System.getProperty(BUDGET_PROPERTY_PREFIX + key, budgets.getProperty(key));
+        if (budget != null && value > Double.parseDouble(budget)) {
+            violations.add(key + ": " + value + " > " + budget);
+        }
+    }
+
+    // Reads every column of every row, as a provider client copying the cursor would
+    private static long readAll(Cursor cursor) {
+        long checksum = 0;
+        int columns = cursor.getColumnCount();
+        while (cursor.moveToNext()) {
+            for (int column = 0; column < columns; column++) {
+                String value = cursor.getString(column);
+                checksum += value != null ? value.length() : 0;
+            }
+        }
+        return checksum;
+    }
+
+    // Inserts the dataset in batches with the default workload distributions: mostly recorded
+    // tasks ahead of now, a tail of expired and completed tasks behind it and a few running ones
+    private void seed() {
+        TaskWorkload workload = TaskWorkload.builder().seed(rows).now(NOW).build();
+        TaskWorkloadLoader.loadThroughDao(taskDao, workload, rows, INSERT_BATCH_SIZE);
+    }
+
+    // Drops the exported document, so only rendering and reading are measured
+    private static final class DiscardingWriter extends Writer {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
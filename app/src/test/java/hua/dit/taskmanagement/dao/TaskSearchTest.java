@@ -0,0 +1,109 @@
+package hua.dit.taskmanagement.dao;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+// Checks how search texts become FTS4 expressions and how the matches are ranked
+public class TaskSearchTest {
+    @Test
+    public void matchExpression_turnsWordsIntoPrefixQueries() {
+        assertEquals("meet* lib*", TaskSearch.matchExpression("Meet lib"));
+        // Greek "Meeting", lowercased
+        assertEquals("\u03c3\u03c5\u03bd\u03ac\u03bd\u03c4\u03b7\u03c3\u03b7*",
+                TaskSearch.matchExpression("\u03a3\u03c5\u03bd\u03ac\u03bd\u03c4\u03b7\u03c3\u03b7"));
+    }
+
+    @Test
+    public void matchExpression_dropsFtsSyntax() {
+        // Quotes, operators, column filters and NEAR groups only separate words
+        assertEquals("a* or* b* short* name* x*",
+                TaskSearch.matchExpression("\"a\" OR -b short_name:x*"));
+        assertEquals("near* c* d*", TaskSearch.matchExpression("NEAR(c d)"));
+    }
+
+    @Test
+    public void matchExpression_withoutWords_isNull() {
+        assertNull(TaskSearch.matchExpression(null));
+        assertNull(TaskSearch.matchExpression(""));
+        assertNull(TaskSearch.matchExpression(" *\"()- "));
+    }
+
+    @Test
+    public void matchExpression_acceptsUpToTheMaximumNumberOfWords() {
+        assertEquals("a* b* c* d* e* f* g* h*",
+                TaskSearch.matchExpression("a b c d e f g h"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void matchExpression_rejectsMoreWordsThanTheMaximum() {
+        TaskSearch.matchExpression("a b c d e f g h i");
+    }
+
+    @Test
+    public void weights_preferRareWordsAndShortNameHits() {
+        // One phrase, three columns: hits in this row, hits in all rows, rows with hits
+        double[] weights = TaskSearch.weights(new int[]{1, 3, 1, 10, 5, 0, 10, 5, 1, 10, 5});
+
+        // Short name, description, location: the same hits count most in the short name
+        assertTrue(weights[0] > weights[2]);
+        assertTrue(weights[2] > weights[1]);
+        // Fewer hits over all rows make each hit count more
+        double[] rareWord = TaskSearch.weights(new int[]{1, 3, 1, 2, 1, 0, 0, 0, 0, 0, 0});
+        assertTrue(rareWord[0] > weights[0]);
+    }
+
+    @Test
+    public void weights_areZeroForColumnsWithoutHits() {
+        int[] twoWords = {2, 3, 1, 4, 4, 0, 0, 0, 0, 0, 0, 1, 4, 4, 0, 0, 0, 0, 0, 0};
+        assertArrayEquals(new double[]{0.75, 0, 0, 0.75, 0, 0}, TaskSearch.weights(twoWords), 1e-9);
+    }
+
+    @Test
+    public void score_sumsTheWeightedHitsOfTheRow() {
+        // Two words, three columns: the first word hits the short name twice, the second word
+        // hits the location once
+        int[] matchinfo = {2, 3, 2, 4, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 2, 2};
+        double[] weights = {0.75, 0, 0, 0, 0, 0.5};
+
+        assertEquals(2 * 0.75 + 0.5, TaskSearch.score(matchinfo, weights), 1e-9);
+    }
+
+    @Test
+    public void topMatches_keepsTheBestBestFirst() {
+        TaskSearch.TopMatches best = new TaskSearch.TopMatches(3);
+        best.offer(1, 0.5);
+        best.offer(2, 2.0);
+        best.offer(3, 0.1);
+        best.offer(4, 1.0);
+        best.offer(5, 0.2);
+
+        assertArrayEquals(new int[]{2, 4, 1}, best.uids());
+    }
+
+    @Test
+    public void topMatches_breaksTiesOnTheLowerUid() {
+        TaskSearch.TopMatches best = new TaskSearch.TopMatches(2);
+        best.offer(9, 1.0);
+        best.offer(7, 1.0);
+        best.offer(8, 1.0);
+
+        assertArrayEquals(new int[]{7, 8}, best.uids());
+    }
+
+    @Test
+    public void decodeMatchinfo_readsNativeOrderIntegers() {
+        int[] values = {1, 3, 7, 70000, 0};
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.nativeOrder());
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        assertArrayEquals(values, TaskSearch.decodeMatchinfo(buffer.array()));
+    }
+}
@@ -0,0 +1,239 @@
+package hua.dit.taskmanagement.export;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Output and allocation tests for the export engine and its serializers
+// Throughput is machine dependent and measured by TaskExportBenchmark in the benchmark module;
+// the bytes allocated per row are not, so each format is held to a budget here
+public class TaskExportEngineTest {
+    private static final long START_TIME = 1_700_000_000_000L;
+
+    // Rows exported per allocation measurement, after as many to warm up
+    private static final int ALLOCATION_ROWS = 100_000;
+    // Room for the number strings of a row, about 100 bytes; every other value is written as is,
+    // and building each row in a StringBuilder would take several times this
+    private static final long MAX_BYTES_PER_ROW = 192;
+
+    @Test
+    public void html_isByteIdenticalToLegacyExport() throws IOException {
+        StringWriter out = new StringWriter();
+        TaskExportEngine.export(new SyntheticSource(500), new HtmlTaskRowSerializer(), out);
+        assertEquals(legacyHtml(new SyntheticSource(500)), out.toString());
+    }
+
+    @Test
+    public void csv_quotesTextAndLeavesMissingValuesEmpty() throws IOException {
+        TaskRow row = new TaskRow();
+        row.setShortName("say \"hi\", now");
+        row.setDescription("line\nbreak");
+        row.setStartTime(START_TIME);
+        row.clearDurationHours();
+        row.setLocation(null);
+        row.setStatus(TaskStatus.IN_PROGRESS);
+
+        StringWriter out = new StringWriter();
+        new CsvTaskRowSerializer().writeRow(out, row);
+        assertEquals("\"say \"\"hi\"\", now\",\"line\nbreak\"," + START_TIME + ",,,\"in-progress\"\r\n",
+                out.toString());
+    }
+
+    @Test
+    public void jsonLines_escapesStringsAndWritesNulls() throws IOException {
+        TaskRow row = new TaskRow();
+        row.setShortName("a\"b\\c");
+        row.setDescription("tab\there\u0001");
+        row.clearStartTime();
+        row.setDurationHours(3);
+        row.setLocation(null);
+        row.setStatus(TaskStatus.RECORDED);
+
+        StringWriter out = new StringWriter();
+        new JsonLinesTaskRowSerializer().writeRow(out, row);
+        assertEquals("{\"short_name\":\"a\\\"b\\\\c\",\"description\":\"tab\\there\\u0001\"," +
+                        "\"start_time\":null,\"duration_hours\":3,\"location\":null,\"status\":\"recorded\"}\n",
+                out.toString());
+    }
+
+    @Test
+    public void html_allocatesLittlePerRow() throws IOException {
+        assertAllocationPerRow(new HtmlTaskRowSerializer());
+    }
+
+    @Test
+    public void csv_allocatesLittlePerRow() throws IOException {
+        assertAllocationPerRow(new CsvTaskRowSerializer());
+    }
+
+    @Test
+    public void jsonLines_allocatesLittlePerRow() throws IOException {
+        assertAllocationPerRow(new JsonLinesTaskRowSerializer());
+    }
+
+    // Exports rows whose values are allocated up front into a writer that drops them, so only
+    // the engine and the serializer allocate while the thread's allocation is measured
+    private static void assertAllocationPerRow(TaskRowSerializer serializer) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        TaskExportEngine.export(new RepeatingSource(ALLOCATION_ROWS), serializer, new NullWriter());
+
+        RepeatingSource source = new RepeatingSource(ALLOCATION_ROWS);
+        long before = threads.getThreadAllocatedBytes(thread);
+        long count = TaskExportEngine.export(source, serializer, new NullWriter());
+        long perRow = (threads.getThreadAllocatedBytes(thread) - before) / count;
+
+        assertEquals(ALLOCATION_ROWS, count);
+        assertTrue(serializer.getFileExtension() + " export allocated " + perRow + " bytes per row",
+                perRow <= MAX_BYTES_PER_ROW);
+    }
+
+    // The original StringBuilder export, kept as the reference for the HTML format
+    private static String legacyHtml(SyntheticSource source) throws IOException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n")
+                .append("<html>\n<head>\n")
+                .append("<meta charset=\"UTF-8\">\n")
+                .append("<title>Incomplete Tasks</title>\n")
+                .append("<style>\n")
+                .append("body { font-family: Arial, sans-serif; margin: 20px; }\n")
+                .append("table { border-collapse: collapse; width: 100%; }\n")
+                .append("th, td { border: 1px solid #ddd; padding: 8px; text-align: left; }\n")
+                .append("th { background-color: #f2f2f2; }\n")
+                .append("tr:nth-child(even) { background-color: #f9f9f9; }\n")
+                .append("</style>\n</head>\n<body>\n")
+                .append("<h1>Incomplete Tasks</h1>\n")
+                .append("<table>\n")
+                .append("<tr><th>Name</th><th>Description</th><th>Start Time</th>")
+                .append("<th>Duration (Hours)</th><th>Location</th><th>Status</th></tr>\n");
+        TaskRow row = new TaskRow();
+        while (source.next(row)) {
+            html.append("<tr>")
+                    .append("<td>").append(legacyEscape(row.getShortName())).append("</td>")
+                    .append("<td>").append(legacyEscape(row.getDescription())).append("</td>")
+                    .append("<td>").append(dateFormat.format(new Date(row.getStartTime()))).append("</td>")
+                    .append("<td>").append(row.hasDurationHours() ? row.getDurationHours() : null).append("</td>")
+                    .append("<td>").append(legacyEscape(row.getLocation())).append("</td>")
+                    .append("<td>").append(legacyEscape(row.getStatus().getLabel())).append("</td>")
+                    .append("</tr>\n");
+        }
+        html.append("</table>\n</body>\n</html>");
+        return html.toString();
+    }
+
+    private static String legacyEscape(String input) {
+        if (input == null) return "";
+        return input.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#039;");
+    }
+
+    // Deterministic rows covering special characters, missing values and every status
+    private static final class SyntheticSource implements TaskRowSource {
+        private static final TaskStatus[] OPEN_STATUSES =
+                {TaskStatus.EXPIRED, TaskStatus.IN_PROGRESS, TaskStatus.RECORDED};
+
+        private final int rows;
+        private int next;
+
+        SyntheticSource(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean next(TaskRow row) {
+            if (next == rows) {
+                return false;
+            }
+            int i = next++;
+            row.setShortName("Task " + i);
+            row.setDescription(i % 7 == 0 ? "Fish & chips <at> \"Joe's\"" : "Description of task " + i);
+            row.setStartTime(START_TIME + i * 60_000L);
+            if (i % 5 == 0) {
+                row.clearDurationHours();
+            } else {
+                row.setDurationHours(i % 24);
+            }
+            row.setLocation(i % 3 == 0 ? null : "Athens, Room " + i);
+            row.setStatus(OPEN_STATUSES[i % OPEN_STATUSES.length]);
+            return true;
+        }
+    }
+
+    // Cycles through rows built once, so reading a row allocates nothing
+    private static final class RepeatingSource implements TaskRowSource {
+        private final TaskRow[] rows = new TaskRow[64];
+        private final int count;
+        private int next;
+
+        RepeatingSource(int count) {
+            this.count = count;
+            SyntheticSource source = new SyntheticSource(rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new TaskRow();
+                source.next(rows[i]);
+            }
+        }
+
+        @Override
+        public boolean next(TaskRow row) {
+            if (next == count) {
+                return false;
+            }
+            TaskRow from = rows[next++ % rows.length];
+            row.setShortName(from.getShortName());
+            row.setDescription(from.getDescription());
+            if (from.hasStartTime()) {
+                row.setStartTime(from.getStartTime());
+            } else {
+                row.clearStartTime();
+            }
+            if (from.hasDurationHours()) {
+                row.setDurationHours(from.getDurationHours());
+            } else {
+                row.clearDurationHours();
+            }
+            row.setLocation(from.getLocation());
+            row.setStatus(from.getStatus());
+            return true;
+        }
+    }
+
+    // Drops everything written to it
+    private static final class NullWriter extends Writer {
+        @Override
+        public void write(int c) {
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
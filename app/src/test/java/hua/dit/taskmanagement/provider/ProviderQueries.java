@@ -0,0 +1,21 @@
+package hua.dit.taskmanagement.provider;
+
+import android.net.Uri;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+// Builds the exact SQL TaskContentProvider.query runs for a request, so tests can run it against
+// their own database without the provider's process-wide database instance
+// Search URIs are not supported, their rows depend on the ranking done by the provider
+public final class ProviderQueries {
+    private ProviderQueries() {
+    }
+
+    public static SupportSQLiteQuery query(Uri uri, String[] projection, String selection,
+                                           String[] selectionArgs, String sortOrder) {
+        TaskQueryBuilder builder = TaskContentProvider.buildQuery(uri, projection, selection,
+                selectionArgs, sortOrder);
+        return new SimpleSQLiteQuery(builder.getSql(), builder.getArguments());
+    }
+}
@@ -0,0 +1,187 @@
+package hua.dit.taskmanagement.provider;
+
+import org.junit.Test;
+
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+// Checks the validation of client query arguments and the SQL built from them
+public class TaskQueryBuilderTest {
+    private static final String ALL_COLUMNS = "uid, short_name, description, start_time, " +
+            "duration_hours, location, (CASE status WHEN 1 THEN 'expired' " +
+            "WHEN 2 THEN 'in-progress' WHEN 3 THEN 'recorded' WHEN 4 THEN 'completed' END) AS status";
+
+    @Test
+    public void nullArguments_selectEveryRowAndColumn() {
+        TaskQueryBuilder builder = new TaskQueryBuilder()
+                .projection(null).selection(null, null).sortOrder(null).limit(null, null);
+
+        assertEquals("SELECT " + ALL_COLUMNS + " FROM tasks", builder.getSql());
+        assertEquals(0, builder.getArguments().length);
+    }
+
+    @Test
+    public void projection_rejectsUnknownColumns() {
+        assertEquals("SELECT uid, short_name FROM tasks", new TaskQueryBuilder()
+                .projection(new String[]{"uid", "short_name"}).getSql());
+
+        assertRejected(() -> new TaskQueryBuilder().projection(new String[]{"uid", "rowid"}));
+        assertRejected(() -> new TaskQueryBuilder().projection(new String[]{"uid, location"}));
+        assertRejected(() -> new TaskQueryBuilder().projection(new String[]{null}));
+    }
+
+    @Test
+    public void selection_rejectsUnknownIdentifiers() {
+        assertRejected(selection("secret = 1"));
+        assertRejected(selection("uid IN (SELECT uid FROM tasks)"));
+        assertRejected(selection("sqlite_version() = ?", "3"));
+    }
+
+    @Test
+    public void selection_rejectsCommentsAndSeparators() {
+        assertRejected(selection("uid = 1 -- and the rest"));
+        assertRejected(selection("uid = 1 /* and the rest */"));
+        assertRejected(selection("uid = 1; DROP TABLE tasks"));
+    }
+
+    @Test
+    public void selection_rejectsQuotedIdentifiers() {
+        assertRejected(selection("\"uid\" = 1"));
+        assertRejected(selection("`uid` = 1"));
+        assertRejected(selection("[uid] = 1"));
+    }
+
+    @Test
+    public void selection_keepsEscapedQuotesInsideLiterals() {
+        TaskQueryBuilder builder = select("short_name = 'it''s -- not; a comment'");
+
+        assertEquals("SELECT uid FROM tasks WHERE (short_name = 'it''s -- not; a comment')",
+                builder.getSql());
+        assertRejected(selection("short_name = 'unterminated"));
+        assertRejected(selection("short_name = 'it''s"));
+    }
+
+    @Test
+    public void selection_countsPlaceholdersOutsideLiterals() {
+        TaskQueryBuilder builder = select("short_name = '?' AND location = ?", "Athens");
+
+        assertEquals("SELECT uid FROM tasks WHERE (short_name = '?' AND location = ?)",
+                builder.getSql());
+        assertArrayEquals(new Object[]{"Athens"}, builder.getArguments());
+        assertRejected(selection("short_name = '??'", "unused"));
+        assertRejected(selection("short_name = ? OR location = ?", "only one"));
+        assertRejected(selection(null, "orphan"));
+    }
+
+    @Test
+    public void selection_comparesStatusLabelsAsCodes() {
+        int recorded = TaskStatus.RECORDED.getCode();
+        int expired = TaskStatus.EXPIRED.getCode();
+
+        assertEquals("SELECT uid FROM tasks WHERE (status = " + recorded + ")",
+                select("status = 'recorded'").getSql());
+        assertEquals("SELECT uid FROM tasks WHERE (" + expired + " <> status)",
+                select("'expired' <> status").getSql());
+        assertEquals("SELECT uid FROM tasks WHERE (status NOT IN ( " + expired + " , ? ))",
+                select("status NOT IN ('expired', ?)", "recorded").getSql());
+        // An unknown label matches no row, as the label expression never produces it
+        assertEquals("SELECT uid FROM tasks WHERE (status = -1)",
+                select("status = 'postponed'").getSql());
+    }
+
+    @Test
+    public void selection_bindsStatusPlaceholdersAsCodes() {
+        TaskQueryBuilder builder = select("location = ? AND status = ? OR status IN (?, 'completed')",
+                "recorded", "in-progress", "unknown");
+
+        assertEquals("SELECT uid FROM tasks WHERE (location = ? AND status = ? OR status IN " +
+                "( ? , " + TaskStatus.COMPLETED.getCode() + " ))", builder.getSql());
+        assertArrayEquals(new Object[]{"recorded", TaskStatus.IN_PROGRESS.getCode(), -1},
+                builder.getArguments());
+    }
+
+    @Test
+    public void selection_keepsStatusLabelsInsideOtherExpressions() {
+        String label = "(CASE status WHEN 1 THEN 'expired' WHEN 2 THEN 'in-progress' " +
+                "WHEN 3 THEN 'recorded' WHEN 4 THEN 'completed' END)";
+
+        // || binds tighter than =, so the label is compared with the concatenation
+        assertEquals("SELECT uid FROM tasks WHERE (" + label + " = 'record' || 'ed')",
+                select("status = 'record' || 'ed'").getSql());
+        assertEquals("SELECT uid FROM tasks WHERE (" + label + " LIKE 'rec%')",
+                select("status LIKE 'rec%'").getSql());
+        assertEquals("SELECT uid FROM tasks WHERE (" + label + " = ? COLLATE NOCASE)",
+                select("status = ? COLLATE NOCASE", "Recorded").getSql());
+    }
+
+    @Test
+    public void sortOrder_acceptsColumnsWithDirections() {
+        assertEquals("SELECT uid FROM tasks ORDER BY start_time DESC, uid ASC", new TaskQueryBuilder()
+                .projection(new String[]{"uid"}).sortOrder("start_time desc, uid ASC").getSql());
+
+        assertRejected(() -> new TaskQueryBuilder().sortOrder("start_time DESCENDING"));
+        assertRejected(() -> new TaskQueryBuilder().sortOrder("start_time ASC NULLS"));
+        assertRejected(() -> new TaskQueryBuilder().sortOrder("RANDOM()"));
+        assertRejected(() -> new TaskQueryBuilder().sortOrder("uid,"));
+    }
+
+    @Test
+    public void limit_acceptsNonNegativeNumbers() {
+        TaskQueryBuilder builder = new TaskQueryBuilder()
+                .projection(new String[]{"uid"}).limit("10", "20");
+
+        assertEquals("SELECT uid FROM tasks LIMIT 10 OFFSET 20", builder.getSql());
+        assertEquals(Integer.valueOf(10), builder.getLimit());
+        assertEquals(Integer.valueOf(20), builder.getOffset());
+        // SQLite needs a LIMIT before an OFFSET
+        assertEquals("SELECT uid FROM tasks LIMIT -1 OFFSET 5", new TaskQueryBuilder()
+                .projection(new String[]{"uid"}).limit(null, "5").getSql());
+        assertNull(new TaskQueryBuilder().limit(null, null).getLimit());
+
+        assertRejected(() -> new TaskQueryBuilder().limit("-1", null));
+        assertRejected(() -> new TaskQueryBuilder().limit("10; DROP TABLE tasks", null));
+        assertRejected(() -> new TaskQueryBuilder().limit(null, "ten"));
+    }
+
+    @Test
+    public void searchWindow_coversTheOffsetAndIsCapped() {
+        assertEquals(50, new TaskQueryBuilder().limit(null, null).searchWindow(50, 1000));
+        assertEquals(30, new TaskQueryBuilder().limit("10", "20").searchWindow(50, 1000));
+        assertEquals(1000, new TaskQueryBuilder().limit("900", "100").searchWindow(50, 1000));
+
+        assertRejected(() -> new TaskQueryBuilder().limit("901", "100").searchWindow(50, 1000));
+        assertRejected(() -> new TaskQueryBuilder().limit(null, "951").searchWindow(50, 1000));
+        // The sum would overflow an int
+        assertRejected(() -> new TaskQueryBuilder().limit("2147483647", "1").searchWindow(50, 1000));
+    }
+
+    @Test
+    public void whereUid_isCombinedWithTheClientSelection() {
+        TaskQueryBuilder builder = select("location = ?", "Athens").whereUid(7);
+
+        assertEquals("SELECT uid FROM tasks WHERE (location = ?) AND (uid = ?)", builder.getSql());
+        assertArrayEquals(new Object[]{"Athens", 7L}, builder.getArguments());
+    }
+
+    private static TaskQueryBuilder select(String selection, String... arguments) {
+        return new TaskQueryBuilder().projection(new String[]{"uid"})
+                .selection(selection, arguments);
+    }
+
+    private static Runnable selection(String selection, String... arguments) {
+        return () -> select(selection, arguments);
+    }
+
+    private static void assertRejected(Runnable build) {
+        try {
+            build.run();
+            fail("Expected the arguments to be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Rejected as required
+        }
+    }
+}
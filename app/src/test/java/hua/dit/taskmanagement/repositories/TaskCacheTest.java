@@ -0,0 +1,137 @@
+package hua.dit.taskmanagement.repositories;
+
+import org.junit.Test;
+
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+// Checks LRU eviction by entry count and size, the generation check of database reads
+// and the hit and miss counters
+public class TaskCacheTest {
+    // Fixed cost of an entry in TaskCache.sizeOf plus two bytes per character
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondEntryLimit() {
+        TaskCache cache = new TaskCache(2, Long.MAX_VALUE);
+        cache.put(task(1, ""));
+        cache.put(task(2, ""));
+        // Touching 1 makes 2 the least recently used entry
+        assertNotNull(cache.get(1));
+
+        cache.put(task(3, ""));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(3));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondByteLimit() {
+        // Room for two tasks with a 10 character name, not three
+        TaskCache cache = new TaskCache(100, 2 * (ENTRY_OVERHEAD_BYTES + 20));
+        cache.put(task(1, "0123456789"));
+        cache.put(task(2, "0123456789"));
+        assertEquals(2, cache.size());
+
+        cache.put(task(3, "0123456789"));
+        assertEquals(2, cache.size());
+        assertNull(cache.get(1));
+
+        // A larger task pushes out both others
+        cache.put(task(4, "01234567890123456789"));
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get(4));
+    }
+
+    @Test
+    public void replacingAnEntryReleasesItsBytes() {
+        TaskCache cache = new TaskCache(100, 2 * (ENTRY_OVERHEAD_BYTES + 20));
+        for (int i = 0; i < 10; i++) {
+            cache.put(task(1, "0123456789"));
+        }
+        cache.put(task(2, "0123456789"));
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void readStartedBeforeInvalidationIsNotCached() {
+        TaskCache cache = new TaskCache(10, Long.MAX_VALUE);
+        long generation = cache.getGeneration();
+        // The table changes while the read is in flight
+        cache.invalidateAll();
+
+        cache.putIfCurrent(task(1, "stale"), generation);
+
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void readStartedBeforeLocalWriteIsNotCached() {
+        TaskCache cache = new TaskCache(10, Long.MAX_VALUE);
+        long generation = cache.getGeneration();
+        cache.updateStatus(1, TaskStatus.COMPLETED);
+
+        cache.putIfCurrent(task(1, "stale"), generation);
+        assertNull(cache.get(1));
+
+        // A read started after the write is cached
+        cache.putIfCurrent(task(1, "fresh"), cache.getGeneration());
+        assertEquals("fresh", cache.get(1).getShortName());
+    }
+
+    @Test
+    public void keepsItsOwnCopies() {
+        TaskCache cache = new TaskCache(10, Long.MAX_VALUE);
+        Task task = task(1, "original");
+        cache.put(task);
+        task.setShortName("changed");
+
+        Task cached = cache.get(1);
+        assertEquals("original", cached.getShortName());
+        cached.setShortName("changed");
+        assertNotSame(cached, cache.get(1));
+        assertEquals("original", cache.get(1).getShortName());
+    }
+
+    @Test
+    public void updateStatusOnlyTouchesCachedTasks() {
+        TaskCache cache = new TaskCache(10, Long.MAX_VALUE);
+        cache.put(task(1, ""));
+
+        cache.updateStatus(1, TaskStatus.COMPLETED);
+        cache.updateStatus(2, TaskStatus.COMPLETED);
+
+        assertEquals(TaskStatus.COMPLETED, cache.get(1).getStatus());
+        assertNull(cache.get(2));
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        TaskCache cache = new TaskCache(10, Long.MAX_VALUE);
+        cache.get(1);
+        cache.put(task(1, ""));
+        cache.get(1);
+        cache.get(1);
+        cache.remove(1);
+        cache.get(1);
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    private static Task task(int uid, String shortName) {
+        Task task = new Task(shortName, null, null, 2, null);
+        task.setUid(uid);
+        task.setStatus(TaskStatus.RECORDED);
+        return task;
+    }
+}
@@ -0,0 +1,78 @@
+package hua.dit.taskmanagement.repositories;
+
+import android.app.Application;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Checks that writes keep their submission order whatever their priority class
+// Robolectric provides the main looper the dispatcher delivers on
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 34)
+public class TaskDispatcherTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Test
+    public void writesToOneTaskLandInSubmissionOrder() throws InterruptedException {
+        TaskDispatcher dispatcher = new TaskDispatcher();
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Holds the writer thread, so the following writes all wait in the queue together
+        dispatcher.write(TaskPriority.NORMAL, () -> {
+            writerBusy.countDown();
+            await(release);
+        });
+        assertTrue(writerBusy.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // Status of one task as the writes set it, in the order they ran
+        List<TaskStatus> applied = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        // A background sweep expires the task, the user completes it, then reopens it
+        dispatcher.write(TaskPriority.BACKGROUND, () -> applied.add(TaskStatus.EXPIRED));
+        dispatcher.write(TaskPriority.NORMAL, () -> applied.add(TaskStatus.COMPLETED));
+        dispatcher.write(TaskPriority.INTERACTIVE, () -> applied.add(TaskStatus.IN_PROGRESS));
+        dispatcher.write(TaskPriority.BACKGROUND, done::countDown);
+        release.countDown();
+
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(TaskStatus.EXPIRED, TaskStatus.COMPLETED, TaskStatus.IN_PROGRESS),
+                applied);
+        // The last write made is the state that stays
+        assertEquals(TaskStatus.IN_PROGRESS, applied.get(applied.size() - 1));
+    }
+
+    @Test
+    public void writesAreCountedUnderTheirOwnClass() throws InterruptedException {
+        TaskDispatcher dispatcher = new TaskDispatcher();
+        CountDownLatch done = new CountDownLatch(2);
+        dispatcher.write(TaskPriority.BACKGROUND, done::countDown);
+        dispatcher.write(TaskPriority.INTERACTIVE, done::countDown);
+
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, dispatcher.getQueueStats(TaskPriority.BACKGROUND).getCount());
+        assertEquals(1, dispatcher.getQueueStats(TaskPriority.INTERACTIVE).getCount());
+        assertEquals(0, dispatcher.getQueueStats(TaskPriority.NORMAL).getCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package hua.dit.taskmanagement.repositories;
+
+import android.app.Application;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.room.InvalidationTracker;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import hua.dit.taskmanagement.dao.TaskDao;
+import hua.dit.taskmanagement.database.TaskDatabase;
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Checks how a list query coalesces reloads, versions its window, stops at close and diffs
+// each snapshot against the one before it
+// Loads and deliveries are queued and run one step at a time by the test; the DAO is a fake whose
+// pages the test sets. Robolectric provides the invalidation tracker of an in-memory database
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 34)
+public class TaskListQueryTest {
+    private TaskDatabase database;
+    private InvalidationTracker invalidationTracker;
+    private final ManualExecutor loads = new ManualExecutor();
+    private final ManualExecutor deliveries = new ManualExecutor();
+    private final FakePages pages = new FakePages();
+    private final RecordingObserver observer = new RecordingObserver();
+
+    @Before
+    public void createDatabase() {
+        database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(),
+                TaskDatabase.class).build();
+        invalidationTracker = database.getInvalidationTracker();
+    }
+
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Test
+    public void changesDuringALoad_areCoalescedIntoOneMoreLoad() {
+        TaskListQuery<Task> query = startQuery(null, 10);
+        // Changes before the queued load runs are covered by that load
+        tasksChanged();
+        tasksChanged();
+        assertEquals(1, loads.size());
+
+        // Three writes commit while the load reads
+        pages.duringNextRead = () -> {
+            tasksChanged();
+            tasksChanged();
+            tasksChanged();
+        };
+        loads.runNext();
+        assertEquals(1, pages.reads);
+        assertEquals(1, loads.size());
+
+        loads.runAll();
+        assertEquals(2, pages.reads);
+        deliveries.runAll();
+        assertEquals(2, observer.snapshots.size());
+        query.close();
+    }
+
+    @Test
+    public void windowMovedDuringALoad_staysPendingUntilItsSnapshotArrives() {
+        pages.page = tasks(1, 2, 3, 4, 5);
+        TaskListQuery<Task> query = startQuery(null, 2);
+        loads.runAll();
+        deliveries.runAll();
+        assertFalse(query.isWindowPending());
+
+        query.setWindow(null, 3);
+        assertTrue(query.isWindowPending());
+        // The window moves again while the first move is being read
+        pages.duringNextRead = () -> query.setWindow(null, 4);
+        loads.runNext();
+        deliveries.runAll();
+        // The snapshot of the first move arrived, the second move is still pending
+        assertEquals(3, observer.lastLimit);
+        assertTrue(query.isWindowPending());
+
+        loads.runAll();
+        deliveries.runAll();
+        assertEquals(4, observer.lastLimit);
+        assertEquals(4, observer.lastRows().size());
+        assertFalse(query.isWindowPending());
+        query.close();
+    }
+
+    @Test
+    public void close_dropsSnapshotsNotDeliveredYet() {
+        TaskListQuery<Task> query = startQuery(null, 10);
+        loads.runAll();
+        assertEquals(1, deliveries.size());
+
+        query.close();
+        deliveries.runAll();
+        assertTrue(observer.snapshots.isEmpty());
+        // The table is no longer observed
+        tasksChanged();
+        query.setWindow(null, 20);
+        assertEquals(0, loads.size());
+    }
+
+    @Test
+    public void eachSnapshot_isDiffedAgainstTheOneLoadedBeforeIt() {
+        pages.page = tasks(1, 2, 3);
+        TaskListQuery<Task> query = startQuery(null, 10);
+        loads.runAll();
+        deliveries.runAll();
+
+        // Two snapshots load before the observer receives either
+        pages.page = tasks(2, 3, 4);
+        tasksChanged();
+        loads.runAll();
+        pages.page = tasks(4, 5);
+        pages.get(4).setStatus(TaskStatus.IN_PROGRESS);
+        tasksChanged();
+        loads.runAll();
+        deliveries.runAll();
+
+        assertEquals(3, observer.snapshots.size());
+        // Each change set turns the snapshot delivered before it into its own
+        for (int i = 1; i < observer.snapshots.size(); i++) {
+            assertChangesApply(observer.snapshots.get(i - 1), observer.snapshots.get(i),
+                    observer.changes.get(i));
+        }
+        // Task 4 is the same item across both diffs, and changed in the last one
+        assertEquals(1, observer.changedCounts.get(2).intValue());
+        query.close();
+    }
+
+    private TaskListQuery<Task> startQuery(TaskPageKey from, int limit) {
+        TaskListQuery<Task> query = new TaskListQuery<>(pages.dao(), invalidationTracker, loads,
+                deliveries, from, limit, task -> task, observer);
+        query.start();
+        return query;
+    }
+
+    // Tells the tracker's observers that the tasks table changed, as a committed write does
+    private void tasksChanged() {
+        invalidationTracker.notifyObserversByTableNames("tasks");
+    }
+
+    // Checks that the change set maps every task kept from the old list onto the same task
+    // in the new list, and every dropped task to no position
+    private static void assertChangesApply(List<Task> oldTasks, List<Task> newTasks,
+                                           DiffUtil.DiffResult changes) {
+        for (int i = 0; i < oldTasks.size(); i++) {
+            int uid = oldTasks.get(i).getUid();
+            int position = changes.convertOldPositionToNew(i);
+            if (indexOf(newTasks, uid) < 0) {
+                assertEquals(RecyclerView.NO_POSITION, position);
+            } else {
+                assertEquals(uid, newTasks.get(position).getUid());
+            }
+        }
+    }
+
+    private static int indexOf(List<Task> tasks, int uid) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getUid() == uid) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<Task> tasks(int... uids) {
+        List<Task> tasks = new ArrayList<>(uids.length);
+        for (int uid : uids) {
+            Task task = new Task("Task " + uid, null, new Date(1_700_000_000_000L + uid), 1, null);
+            task.setUid(uid);
+            task.setStatus(TaskStatus.RECORDED);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    // Executor whose work only runs when the test says so
+    private static final class ManualExecutor implements Executor {
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable work) {
+            queue.add(work);
+        }
+
+        int size() {
+            return queue.size();
+        }
+
+        void runNext() {
+            queue.remove().run();
+        }
+
+        // Runs the queued work and any work it queues
+        void runAll() {
+            while (!queue.isEmpty()) {
+                runNext();
+            }
+        }
+    }
+
+    // Pages of the fake DAO: the first limit tasks of the current list
+    private static final class FakePages {
+        List<Task> page = Collections.emptyList();
+        // Runs inside the next read, e.g. to change the table while it is read
+        Runnable duringNextRead;
+        int reads;
+
+        Task get(int uid) {
+            for (Task task : page) {
+                if (task.getUid() == uid) {
+                    return task;
+                }
+            }
+            throw new IllegalArgumentException("No task " + uid);
+        }
+
+        // Only the first page query is served, the query under test reads nothing else
+        TaskDao dao() {
+            return (TaskDao) Proxy.newProxyInstance(TaskDao.class.getClassLoader(),
+                    new Class<?>[]{TaskDao.class}, (proxy, method, args) -> {
+                        if (!method.getName().equals("getNonCompletedTasksFirstPage")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        return read((Integer) args[0]);
+                    });
+        }
+
+        private List<Task> read(int limit) {
+            reads++;
+            Runnable during = duringNextRead;
+            duringNextRead = null;
+            if (during != null) {
+                during.run();
+            }
+            // Copies, as Room returns new tasks on every read
+            List<Task> result = new ArrayList<>();
+            for (Task task : page.subList(0, Math.min(limit, page.size()))) {
+                Task copy = new Task(task.getShortName(), task.getDescription(),
+                        task.getStartTime(), task.getDurationHours(), task.getLocation());
+                copy.setUid(task.getUid());
+                copy.setStatus(task.getStatus());
+                result.add(copy);
+            }
+            return result;
+        }
+    }
+
+    // Records every snapshot, its change set and the number of changed items in it
+    private static final class RecordingObserver implements TaskListQuery.Observer<Task> {
+        final List<List<Task>> snapshots = new ArrayList<>();
+        final List<DiffUtil.DiffResult> changes = new ArrayList<>();
+        final List<Integer> changedCounts = new ArrayList<>();
+        int lastLimit;
+
+        @Override
+        public void onChanged(List<Task> rows, DiffUtil.DiffResult changes, int limit) {
+            snapshots.add(rows);
+            this.changes.add(changes);
+            int[] changed = new int[1];
+            changes.dispatchUpdatesTo(new ListUpdateCallback() {
+                @Override
+                public void onInserted(int position, int count) {
+                }
+
+                @Override
+                public void onRemoved(int position, int count) {
+                }
+
+                @Override
+                public void onMoved(int fromPosition, int toPosition) {
+                }
+
+                @Override
+                public void onChanged(int position, int count, Object payload) {
+                    changed[0] += count;
+                }
+            });
+            changedCounts.add(changed[0]);
+            lastLimit = limit;
+        }
+
+        @Override
+        public void onError(String error) {
+            throw new AssertionError(error);
+        }
+
+        List<Task> lastRows() {
+            return snapshots.get(snapshots.size() - 1);
+        }
+    }
+}
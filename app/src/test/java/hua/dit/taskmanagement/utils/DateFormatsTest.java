@@ -0,0 +1,105 @@
+package hua.dit.taskmanagement.utils;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+// Checks DateFormats against the SimpleDateFormat patterns it replaces
+public class DateFormatsTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Athens");
+    private static final long BASE = 1_700_000_000_000L;
+
+    @Test
+    public void formats_matchSimpleDateFormat() {
+        DateFormats formats = new DateFormats(ZONE, Locale.US);
+        SimpleDateFormat display = simpleDateFormat(DateFormats.DISPLAY_PATTERN);
+        SimpleDateFormat export = simpleDateFormat(DateFormats.EXPORT_PATTERN);
+        SimpleDateFormat provider = simpleDateFormat(DateFormats.PROVIDER_PATTERN);
+
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            // Covers several years on either side of the base, including DST changes
+            long time = BASE + (random.nextLong() % (5L * 365 * 24 * 3_600_000L));
+            Date date = new Date(time);
+            assertEquals(display.format(date), formats.formatDisplay(time));
+            assertEquals(export.format(date), formats.formatExport(time));
+            assertEquals(provider.format(date), formats.formatProvider(time));
+        }
+    }
+
+    @Test
+    public void formatsBeforeTheEpoch() {
+        DateFormats formats = new DateFormats(ZONE, Locale.US);
+        long time = -86_400_000L - 1;
+        assertEquals(simpleDateFormat(DateFormats.EXPORT_PATTERN).format(new Date(time)),
+                formats.formatExport(time));
+    }
+
+    @Test
+    public void memoizesPerMinute() {
+        DateFormats formats = new DateFormats(ZONE, Locale.US);
+        long minuteStart = BASE - BASE % 60_000L;
+        String first = formats.formatDisplay(minuteStart);
+        // Every instant in the same minute reuses the string
+        assertSame(first, formats.formatDisplay(minuteStart + 59_999L));
+        assertEquals(formats.formatDisplay(minuteStart + 60_000L),
+                formats.formatDisplay(minuteStart + 60_001L));
+    }
+
+    @Test
+    public void parseProvider_roundTrips() {
+        DateFormats formats = new DateFormats(ZONE, Locale.US);
+        long time = BASE - BASE % 1_000L;
+        assertEquals(time, formats.parseProvider(formats.formatProvider(time)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseProvider_rejectsOtherFormats() {
+        new DateFormats(ZONE, Locale.US).parseProvider("31/12/2024 18:30");
+    }
+
+    @Test
+    public void concurrentFormatting_isConsistent() throws Exception {
+        DateFormats formats = new DateFormats(ZONE, Locale.US);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                final int seed = thread;
+                results.add(executor.submit(() -> {
+                    SimpleDateFormat export = simpleDateFormat(DateFormats.EXPORT_PATTERN);
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 50_000; i++) {
+                        // Few distinct minutes, so threads keep hitting the same cache slots
+                        long time = BASE + random.nextInt(4_096) * 60_000L + random.nextInt(60_000);
+                        assertEquals(export.format(new Date(time)), formats.formatExport(time));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static SimpleDateFormat simpleDateFormat(String pattern) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone(ZONE));
+        return format;
+    }
+}
@@ -0,0 +1,92 @@
+package hua.dit.taskmanagement.utils;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+import static org.junit.Assert.assertEquals;
+
+// Checks status determination at fixed instants, including durations beyond the int range
+public class TaskStatusManagerTest {
+    private static final long HOUR = 3_600_000L;
+    private static final long NOW = 1_700_000_000_000L;
+
+    private static final int RECORDED = TaskStatus.RECORDED.getCode();
+    private static final int IN_PROGRESS = TaskStatus.IN_PROGRESS.getCode();
+    private static final int EXPIRED = TaskStatus.EXPIRED.getCode();
+    private static final int COMPLETED = TaskStatus.COMPLETED.getCode();
+
+    @Test
+    public void determineStatus_followsTheTimeWindow() {
+        assertEquals(RECORDED, TaskStatusManager.determineStatus(NOW, NOW + 1, 2));
+        // A transition happens once its instant lies strictly before now, as in the sweep
+        assertEquals(RECORDED, TaskStatusManager.determineStatus(NOW, NOW, 2));
+        assertEquals(IN_PROGRESS, TaskStatusManager.determineStatus(NOW, NOW - 1, 2));
+        assertEquals(IN_PROGRESS, TaskStatusManager.determineStatus(NOW, NOW - 2 * HOUR, 2));
+        assertEquals(EXPIRED, TaskStatusManager.determineStatus(NOW, NOW - 2 * HOUR - 1, 2));
+    }
+
+    @Test
+    public void determineStatus_handlesMissingValues() {
+        assertEquals(RECORDED, TaskStatusManager.determineStatus(
+                NOW, TaskStatusManager.NO_START_TIME, 2));
+        assertEquals(IN_PROGRESS, TaskStatusManager.determineStatus(
+                NOW, NOW - 1_000 * HOUR, TaskStatusManager.NO_DURATION));
+    }
+
+    @Test
+    public void determineStatus_doesNotOverflow() {
+        // 597 hours is past the int range in milliseconds, the old arithmetic wrapped negative
+        assertEquals(IN_PROGRESS, TaskStatusManager.determineStatus(NOW, NOW - HOUR, 597));
+        assertEquals(IN_PROGRESS, TaskStatusManager.determineStatus(
+                NOW, NOW - HOUR, Integer.MAX_VALUE));
+        assertEquals(IN_PROGRESS, TaskStatusManager.determineStatus(
+                Long.MAX_VALUE, Long.MAX_VALUE - 1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void endTime_saturatesInsteadOfWrapping() {
+        assertEquals(NOW + 2 * HOUR, TaskStatusManager.endTime(NOW, 2));
+        assertEquals(NOW + Integer.MAX_VALUE * HOUR,
+                TaskStatusManager.endTime(NOW, Integer.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, TaskStatusManager.endTime(Long.MAX_VALUE - HOUR, 2));
+        assertEquals(Long.MAX_VALUE,
+                TaskStatusManager.endTime(Long.MAX_VALUE - 1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void determineStatuses_onlyMovesForward() {
+        byte[] statuses = {(byte) RECORDED, (byte) RECORDED, (byte) IN_PROGRESS,
+                (byte) IN_PROGRESS, (byte) EXPIRED, (byte) COMPLETED};
+        long[] starts = {NOW - 3 * HOUR, NOW + HOUR, NOW - 3 * HOUR, NOW + HOUR,
+                NOW + HOUR, NOW - 3 * HOUR};
+        int[] durations = {2, 2, 2, 2, 2, 2};
+
+        // Written in place
+        assertEquals(2, TaskStatusManager.determineStatuses(
+                NOW, statuses, starts, durations, statuses.length, statuses));
+        assertEquals(EXPIRED, statuses[0]);
+        assertEquals(RECORDED, statuses[1]);
+        assertEquals(EXPIRED, statuses[2]);
+        // Never moves back to recorded, even if its start time was moved into the future
+        assertEquals(IN_PROGRESS, statuses[3]);
+        assertEquals(EXPIRED, statuses[4]);
+        assertEquals(COMPLETED, statuses[5]);
+    }
+
+    @Test
+    public void determineTaskStatus_acceptsMissingDuration() {
+        Task task = new Task("name", "description", new Date(NOW - HOUR), null, "location");
+        assertEquals(TaskStatus.IN_PROGRESS, TaskStatusManager.determineTaskStatus(task, NOW));
+    }
+
+    @Test
+    public void determineTaskStatus_keepsCompletedTasks() {
+        Task task = new Task("name", "description", new Date(NOW - 3 * HOUR), 2, "location");
+        task.setStatus(TaskStatus.COMPLETED);
+        assertEquals(TaskStatus.COMPLETED, TaskStatusManager.determineTaskStatus(task, NOW));
+    }
+}
@@ -0,0 +1,105 @@
+package hua.dit.taskmanagement.utils;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Checks the status rules of TaskStatusSnapshot and that reloading it does not allocate per row
+public class TaskStatusSnapshotTest {
+    private static final long HOUR = 3_600_000L;
+    private static final long NOW = 1_700_000_000_000L;
+
+    private static final int RECORDED = TaskStatus.RECORDED.getCode();
+    private static final int IN_PROGRESS = TaskStatus.IN_PROGRESS.getCode();
+    private static final int EXPIRED = TaskStatus.EXPIRED.getCode();
+
+    @Test
+    public void evaluate_followsSweepRules() {
+        TaskStatusSnapshot snapshot = new TaskStatusSnapshot();
+        // Not started yet
+        snapshot.add(1, RECORDED, NOW + HOUR, 2);
+        // Started, still running
+        snapshot.add(2, RECORDED, NOW - HOUR, 2);
+        // Whole window passed between sweeps
+        snapshot.add(3, RECORDED, NOW - 3 * HOUR, 2);
+        // Running past its end
+        snapshot.add(4, IN_PROGRESS, NOW - 3 * HOUR, 2);
+        // No duration, never expires
+        snapshot.add(5, IN_PROGRESS, NOW - 3 * HOUR, TaskStatusSnapshot.NO_DURATION);
+        // No start time, never starts
+        snapshot.add(6, RECORDED, TaskStatusSnapshot.NO_START_TIME, 2);
+
+        byte[] statuses = new byte[snapshot.size()];
+        assertEquals(3, snapshot.evaluate(NOW, statuses));
+        assertEquals(RECORDED, statuses[0]);
+        assertEquals(IN_PROGRESS, statuses[1]);
+        assertEquals(EXPIRED, statuses[2]);
+        assertEquals(EXPIRED, statuses[3]);
+        assertEquals(IN_PROGRESS, statuses[4]);
+        assertEquals(RECORDED, statuses[5]);
+    }
+
+    @Test
+    public void endTime_doesNotOverflowForLongDurations() {
+        TaskStatusSnapshot snapshot = new TaskStatusSnapshot();
+        // 1_000_000 hours in milliseconds is beyond the int range
+        snapshot.add(1, IN_PROGRESS, NOW, 1_000_000);
+        assertEquals(NOW + 1_000_000L * HOUR, snapshot.getEndTime(0));
+        assertEquals(0, snapshot.evaluate(NOW + HOUR, new byte[1]));
+    }
+
+    @Test
+    public void endTime_saturatesNearTheEndOfTime() {
+        TaskStatusSnapshot snapshot = new TaskStatusSnapshot();
+        snapshot.add(1, IN_PROGRESS, Long.MAX_VALUE - HOUR, 2);
+        snapshot.add(2, IN_PROGRESS, Long.MAX_VALUE - 1, Integer.MAX_VALUE);
+        // The unsaturated sum wraps to a time long past, which would read as expired
+        assertEquals(Long.MAX_VALUE, snapshot.getEndTime(0));
+        assertEquals(Long.MAX_VALUE, snapshot.getEndTime(1));
+    }
+
+    @Test
+    public void missingValues_areReported() {
+        TaskStatusSnapshot snapshot = new TaskStatusSnapshot();
+        snapshot.add(1, RECORDED, TaskStatusSnapshot.NO_START_TIME, TaskStatusSnapshot.NO_DURATION);
+        assertFalse(snapshot.hasStartTime(0));
+        assertFalse(snapshot.hasDuration(0));
+        assertEquals(TaskStatusSnapshot.NO_START_TIME, snapshot.getEndTime(0));
+    }
+
+    @Test
+    public void reload_reusesArrays() {
+        int rows = 1_000_000;
+        TaskStatusSnapshot snapshot = new TaskStatusSnapshot(rows);
+        byte[] statuses = new byte[rows];
+        fill(snapshot, rows);
+        snapshot.evaluate(NOW, statuses);
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        fill(snapshot, rows);
+        int changed = snapshot.evaluate(NOW, statuses);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertEquals(rows, snapshot.size());
+        assertTrue(changed > 0);
+        // A Task per row costs well over 100 bytes; a reload must not allocate per row
+        assertTrue("Reload allocated " + allocated + " bytes", allocated < 64 * 1024);
+    }
+
+    private static void fill(TaskStatusSnapshot snapshot, int rows) {
+        snapshot.clear();
+        for (int uid = 1; uid <= rows; uid++) {
+            snapshot.add(uid, uid % 2 == 0 ? RECORDED : IN_PROGRESS,
+                    NOW + (uid % 48 - 24) * HOUR, uid % 12);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package hua.dit.taskmanagement.utils;
+
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Checks TransitionTimeline against a simple sorted reference model
+public class TransitionTimelineTest {
+    private static final int LARGE_SIZE = 1_000_000;
+
+    @Test
+    public void emptyTimeline_hasNoDeadline() {
+        TransitionTimeline timeline = new TransitionTimeline();
+        assertEquals(TransitionTimeline.NO_DEADLINE, timeline.nextDeadline());
+        assertEquals(0, timeline.dueBy(Long.MAX_VALUE).length);
+        assertEquals(TransitionTimeline.NO_TIME, timeline.getTime(1));
+    }
+
+    @Test
+    public void dueBy_returnsEntriesInTimeThenUidOrder() {
+        TransitionTimeline timeline = new TransitionTimeline();
+        timeline.put(5, 300, TransitionTimeline.NO_TIME);
+        timeline.put(3, 100, TransitionTimeline.NO_TIME);
+        timeline.put(9, 200, TransitionTimeline.NO_TIME);
+        timeline.put(1, 200, TransitionTimeline.NO_TIME);
+        timeline.put(7, 400, TransitionTimeline.NO_TIME);
+
+        assertEquals(100, timeline.nextDeadline());
+        assertArrayEquals(new int[]{3, 1, 9, 5}, timeline.dueBy(300));
+        assertArrayEquals(new int[0], timeline.dueBy(99));
+    }
+
+    @Test
+    public void advance_movesToFollowUpTransitionThenDrops() {
+        TransitionTimeline timeline = new TransitionTimeline();
+        // Recorded task starting at 100 and ending at 500
+        timeline.put(1, 100, 500);
+        // In-progress task ending at 200
+        timeline.put(2, 200, TransitionTimeline.NO_TIME);
+
+        // Sweeps only apply transitions strictly before now
+        assertEquals(0, timeline.advance(100));
+        assertEquals(1, timeline.advance(101));
+        assertEquals(500, timeline.getTime(1));
+        assertEquals(200, timeline.nextDeadline());
+
+        // A sweep long after both windows applies every remaining transition
+        assertEquals(2, timeline.advance(1_000));
+        assertEquals(0, timeline.size());
+        assertEquals(TransitionTimeline.NO_DEADLINE, timeline.nextDeadline());
+    }
+
+    @Test
+    public void randomOperations_matchReferenceModel() {
+        Random random = new Random(42);
+        TransitionTimeline timeline = new TransitionTimeline();
+        Map<Integer, Long> reference = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int uid = 1 + random.nextInt(5_000);
+            int operation = random.nextInt(10);
+            if (operation < 6) {
+                long time = random.nextInt(1_000_000);
+                timeline.put(uid, time, TransitionTimeline.NO_TIME);
+                reference.put(uid, time);
+            } else {
+                assertEquals(reference.remove(uid) != null, timeline.remove(uid));
+            }
+
+            if (i % 1_000 == 0) {
+                long bound = random.nextInt(1_000_000);
+                assertArrayEquals(expectedDue(reference, bound), timeline.dueBy(bound));
+                assertEquals(reference.size(), timeline.size());
+                long expectedDeadline = reference.values().stream()
+                        .min(Long::compare).orElse(TransitionTimeline.NO_DEADLINE);
+                assertEquals(expectedDeadline, timeline.nextDeadline());
+            }
+        }
+        for (Map.Entry<Integer, Long> entry : reference.entrySet()) {
+            assertEquals(entry.getValue().longValue(), timeline.getTime(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void loadsAMillionEntries() {
+        int[] uids = new int[LARGE_SIZE];
+        long[] times = new long[LARGE_SIZE];
+        long[] nextTimes = new long[LARGE_SIZE];
+        Random random = new Random(7);
+        long minimum = Long.MAX_VALUE;
+        for (int i = 0; i < LARGE_SIZE; i++) {
+            uids[i] = i + 1;
+            times[i] = 1_700_000_000_000L + random.nextInt(Integer.MAX_VALUE);
+            nextTimes[i] = TransitionTimeline.NO_TIME;
+            minimum = Math.min(minimum, times[i]);
+        }
+
+        TransitionTimeline timeline = new TransitionTimeline();
+        timeline.load(uids, times, nextTimes, LARGE_SIZE);
+        assertEquals(LARGE_SIZE, timeline.size());
+        assertEquals(minimum, timeline.nextDeadline());
+
+        // Due entries come back in order
+        int[] due = timeline.dueBy(minimum + 1_000_000);
+        assertTrue(due.length > 0);
+        long previous = Long.MIN_VALUE;
+        for (int uid : due) {
+            long time = timeline.getTime(uid);
+            assertTrue(time >= previous);
+            previous = time;
+        }
+
+        // Incremental updates keep working at this size
+        assertTrue(timeline.remove(due[0]));
+        assertFalse(timeline.remove(due[0]));
+        timeline.put(LARGE_SIZE + 1, 0, TransitionTimeline.NO_TIME);
+        assertEquals(0, timeline.nextDeadline());
+        assertEquals(LARGE_SIZE, timeline.size());
+    }
+
+    @Test
+    public void readers_seeConsistentEntriesWhileWritesRace() throws InterruptedException {
+        TransitionTimeline timeline = new TransitionTimeline();
+        // Stable entries at times 0..99, which every read must return unchanged
+        int[] stable = new int[100];
+        for (int i = 0; i < stable.length; i++) {
+            stable[i] = i + 1;
+            timeline.put(stable[i], i, TransitionTimeline.NO_TIME);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        // Later entries come and go, reshaping the heap and growing its arrays under the readers
+        Thread writer = new Thread(() -> {
+            Random random = new Random(11);
+            int uid = 1_000;
+            while (!stop.get()) {
+                timeline.put(uid, 1_000 + random.nextInt(1_000_000), TransitionTimeline.NO_TIME);
+                if (uid % 3 == 0) {
+                    timeline.remove(uid - 1_000 > 1_000 ? uid - 1_000 : uid);
+                }
+                uid++;
+            }
+        });
+        writer.start();
+        try {
+            for (int read = 0; read < 20_000; read++) {
+                assertArrayEquals(stable, timeline.dueBy(stable.length - 1));
+                assertEquals(stable.length - 1, timeline.getTime(stable[stable.length - 1]));
+                assertTrue(timeline.size() >= stable.length);
+            }
+        } finally {
+            stop.set(true);
+            writer.join();
+        }
+    }
+
+    private static int[] expectedDue(Map<Integer, Long> reference, long bound) {
+        TreeSet<Map.Entry<Integer, Long>> sorted = new TreeSet<>(
+                Comparator.comparing((Map.Entry<Integer, Long> entry) -> entry.getValue())
+                        .thenComparing(Map.Entry::getKey));
+        sorted.addAll(reference.entrySet());
+        return sorted.stream()
+                .filter(entry -> entry.getValue() <= bound)
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+    }
+}
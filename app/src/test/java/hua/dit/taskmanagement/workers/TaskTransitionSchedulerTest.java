@@ -0,0 +1,179 @@
+package hua.dit.taskmanagement.workers;
+
+import android.app.Application;
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.work.Configuration;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.testing.SynchronousExecutor;
+import androidx.work.testing.WorkManagerTestInitHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import hua.dit.taskmanagement.database.TaskDatabase;
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.utils.TaskTransitionIndex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+// Checks which unique work the scheduler enqueues, replaces and cancels as transitions move
+// and sweeps run, on WorkManager's test implementation
+// Scheduled sweeps never run here, the test reports sweeps to the scheduler as the worker does.
+// Room runs invalidations inline, so every write reschedules before it returns
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 34)
+public class TaskTransitionSchedulerTest {
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    private static final String SLOT_0 = "task_status_transition_0";
+    private static final String SLOT_1 = "task_status_transition_1";
+    private static final String LEGACY = "task_status_check";
+
+    private TaskDatabase database;
+    private WorkManager workManager;
+    private TaskTransitionIndex transitionIndex;
+    private TaskTransitionScheduler scheduler;
+
+    @Before
+    public void createScheduler() {
+        Context context = ApplicationProvider.getApplicationContext();
+        WorkManagerTestInitHelper.initializeTestWorkManager(context, new Configuration.Builder()
+                .setExecutor(new SynchronousExecutor())
+                .build());
+        workManager = WorkManager.getInstance(context);
+        database = Room.inMemoryDatabaseBuilder(context, TaskDatabase.class)
+                .allowMainThreadQueries()
+                .setQueryExecutor(Runnable::run)
+                .build();
+        // Not built, so the next transition is read from the database until a test builds it
+        transitionIndex = new TaskTransitionIndex(database.taskDao());
+        assertFalse(transitionIndex.isBuilt());
+        scheduler = new TaskTransitionScheduler(workManager, database, transitionIndex,
+                () -> NOW, Runnable::run);
+    }
+
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Test
+    public void start_cancelsTheLegacyPollingAndSchedulesTheNextTransition() throws Exception {
+        // Hourly polling enqueued by an earlier version; the delay keeps it from running here
+        workManager.enqueueUniquePeriodicWork(LEGACY, ExistingPeriodicWorkPolicy.KEEP,
+                new PeriodicWorkRequest.Builder(TaskStatusCheckWorker.class, 1, TimeUnit.HOURS)
+                        .setInitialDelay(1, TimeUnit.HOURS)
+                        .build()).getResult().get();
+        database.taskDao().insert(recordedTask(NOW + HOUR));
+
+        scheduler.start();
+
+        assertEquals(WorkInfo.State.CANCELLED, onlyWork(LEGACY).getState());
+        WorkInfo sweep = onlyWork(SLOT_0);
+        assertEquals(WorkInfo.State.ENQUEUED, sweep.getState());
+        // Timed from the injected clock, just after the transition
+        assertEquals(HOUR + 1, sweep.getInitialDelayMillis());
+        assertTrue(work(SLOT_1).isEmpty());
+    }
+
+    @Test
+    public void earlierTransition_replacesThePendingSweepInItsSlot() throws Exception {
+        database.taskDao().insert(recordedTask(NOW + HOUR));
+        UUID first = onlyWork(SLOT_0).getId();
+
+        database.taskDao().insert(recordedTask(NOW + 10 * MINUTE));
+
+        WorkInfo replacement = onlyWork(SLOT_0);
+        assertNotEquals(first, replacement.getId());
+        assertEquals(WorkInfo.State.ENQUEUED, replacement.getState());
+        assertEquals(10 * MINUTE + 1, replacement.getInitialDelayMillis());
+        assertTrue(work(SLOT_1).isEmpty());
+    }
+
+    @Test
+    public void sweepInProgress_handsTheNextSweepToTheOtherSlot() throws Exception {
+        database.taskDao().insert(recordedTask(NOW + HOUR));
+        UUID running = onlyWork(SLOT_0).getId();
+
+        // The slot 0 sweep starts, and a write moves the next transition while it runs
+        scheduler.onSweepStarted(0);
+        database.taskDao().insert(recordedTask(NOW + 30 * MINUTE));
+
+        // The running sweep is neither replaced nor cancelled
+        assertEquals(running, onlyWork(SLOT_0).getId());
+        assertEquals(WorkInfo.State.ENQUEUED, onlyWork(SLOT_0).getState());
+        UUID next = onlyWork(SLOT_1).getId();
+        // Finishing the sweep keeps the sweep already scheduled for the same instant
+        scheduler.onSweepFinished();
+        assertEquals(next, onlyWork(SLOT_1).getId());
+
+        // The slot 1 sweep starts in turn, so slot 0 takes the following one
+        scheduler.onSweepStarted(1);
+        database.taskDao().insert(recordedTask(NOW + 5 * MINUTE));
+        assertEquals(next, onlyWork(SLOT_1).getId());
+        assertNotEquals(running, onlyWork(SLOT_0).getId());
+        assertEquals(5 * MINUTE + 1, onlyWork(SLOT_0).getInitialDelayMillis());
+    }
+
+    @Test
+    public void nothingDue_cancelsThePendingSweepButNotARunningOne() throws Exception {
+        long uid = database.taskDao().insert(recordedTask(NOW + HOUR));
+        database.taskDao().deleteById(uid);
+        assertEquals(WorkInfo.State.CANCELLED, onlyWork(SLOT_0).getState());
+
+        uid = database.taskDao().insert(recordedTask(NOW + HOUR));
+        UUID running = onlyWork(SLOT_0).getId();
+        scheduler.onSweepStarted(0);
+        database.taskDao().deleteById(uid);
+        assertEquals(running, onlyWork(SLOT_0).getId());
+        assertEquals(WorkInfo.State.ENQUEUED, onlyWork(SLOT_0).getState());
+    }
+
+    @Test
+    public void writeNotReportedToTheIndex_reloadsItAndSchedulesTheTransition() throws Exception {
+        transitionIndex.build();
+        assertTrue(work(SLOT_0).isEmpty());
+
+        // Inserted through the DAO, which does not report to the index, as a direct DAO user or
+        // another process would
+        database.taskDao().insert(recordedTask(NOW + HOUR));
+
+        assertEquals(NOW + HOUR, transitionIndex.nextDeadline());
+        assertEquals(HOUR + 1, onlyWork(SLOT_0).getInitialDelayMillis());
+    }
+
+    private List<WorkInfo> work(String uniqueName) throws ExecutionException, InterruptedException {
+        return workManager.getWorkInfosForUniqueWork(uniqueName).get();
+    }
+
+    private WorkInfo onlyWork(String uniqueName) throws ExecutionException, InterruptedException {
+        List<WorkInfo> infos = work(uniqueName);
+        assertEquals(1, infos.size());
+        return infos.get(0);
+    }
+
+    private static Task recordedTask(long startTime) {
+        return new Task("Task", null, new Date(startTime), 1, null);
+    }
+}
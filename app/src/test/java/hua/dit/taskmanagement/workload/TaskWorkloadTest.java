@@ -0,0 +1,100 @@
+package hua.dit.taskmanagement.workload;
+
+import org.junit.Test;
+
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+import hua.dit.taskmanagement.utils.TaskStatusManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+// Checks that generated workloads are reproducible and follow their configured distributions
+public class TaskWorkloadTest {
+    private static final long NOW = 1_700_000_000_000L;
+    private static final int TASKS = 20_000;
+
+    @Test
+    public void sameSeed_generatesSameTasks() {
+        TaskWorkload first = TaskWorkload.builder().seed(5).now(NOW).build();
+        TaskWorkload second = TaskWorkload.builder().seed(5).now(NOW).build();
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(first.next().toString(), second.next().toString());
+        }
+    }
+
+    @Test
+    public void statuses_followWeightsAndMatchStartTimes() {
+        TaskWorkload workload = TaskWorkload.builder().seed(1).now(NOW)
+                .statusWeights(1, 1, 2, 0)
+                .nullStartTimes(0)
+                .durations(1, 8, 0)
+                .build();
+        int[] counts = new int[5];
+        for (int i = 0; i < TASKS; i++) {
+            Task task = workload.next();
+            counts[task.getStatus().getCode()]++;
+            // Every open task carries the status its timing calls for at NOW
+            assertEquals(task.getStatus(), TaskStatusManager.determineTaskStatus(task, NOW));
+        }
+        assertEquals(0, counts[TaskStatus.COMPLETED.getCode()]);
+        assertShare(0.25, counts[TaskStatus.EXPIRED.getCode()]);
+        assertShare(0.25, counts[TaskStatus.IN_PROGRESS.getCode()]);
+        assertShare(0.5, counts[TaskStatus.RECORDED.getCode()]);
+    }
+
+    @Test
+    public void descriptionsAndDurations_stayInRange() {
+        TaskWorkload workload = TaskWorkload.builder().seed(2).now(NOW)
+                .descriptions(10, 40, 0)
+                .durations(2, 3, 0)
+                .build();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = workload.next();
+            int length = task.getDescription().length();
+            assertTrue("Length " + length, length >= 10 && length <= 40);
+            int duration = task.getDurationHours();
+            assertTrue("Duration " + duration, duration == 2 || duration == 3);
+        }
+    }
+
+    @Test
+    public void locations_followWeights() {
+        TaskWorkload workload = TaskWorkload.builder().seed(3).now(NOW)
+                .locations(new String[]{"A", "B"}, new int[]{3, 1})
+                .build();
+        int a = 0;
+        for (int i = 0; i < TASKS; i++) {
+            if (workload.next().getLocation().equals("A")) {
+                a++;
+            }
+        }
+        assertShare(0.75, a);
+    }
+
+    @Test
+    public void nullPercentages_produceMissingValues() {
+        TaskWorkload workload = TaskWorkload.builder().seed(4).now(NOW)
+                .descriptions(0, 10, 100)
+                .durations(1, 1, 100)
+                .nullStartTimes(100)
+                .build();
+        Task task = workload.next();
+        assertNull(task.getDescription());
+        assertNull(task.getDurationHours());
+        assertNull(task.getStartTime());
+        assertNotNull(task.getShortName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroWeights_areRejected() {
+        TaskWorkload.builder().statusWeights(0, 0, 0, 0);
+    }
+
+    private static void assertShare(double expected, int count) {
+        double share = (double) count / TASKS;
+        assertTrue("Share " + share + ", expected " + expected, Math.abs(share - expected) < 0.02);
+    }
+}
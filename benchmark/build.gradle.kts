@@ -0,0 +1,47 @@
+// JMH microbenchmarks of the app's pure-Java code, run on the plain JVM without a device
+// The Android module cannot be a dependency of a JVM module, so the measured sources are
+// compiled here straight from the app's source tree
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "hua/dit/taskmanagement/entities/**",
+                "hua/dit/taskmanagement/converters/**",
+                "hua/dit/taskmanagement/export/**",
+                "hua/dit/taskmanagement/utils/DateFormats.java",
+                "hua/dit/taskmanagement/utils/TaskStatusManager.java"
+            )
+            // Reads an Android cursor
+            exclude("hua/dit/taskmanagement/export/CursorTaskRowSource.java")
+        }
+    }
+}
+
+dependencies {
+    // Annotations of the Task entity and the Room type converters
+    implementation(libs.room.common)
+    implementation(libs.annotation)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // Machine-readable results, to compare runs between releases
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // Narrows a run to the benchmarks matching a regular expression, e.g. -Pjmh.includes=Export
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.set(listOf(it)) }
+}
@@ -0,0 +1,46 @@
+package hua.dit.taskmanagement.converters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+// Room type conversions done for every read and written task
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskConvertersBenchmark {
+    private final TaskConverters converters = new TaskConverters();
+    // Fields rather than constants, so the JIT cannot fold the conversions
+    private Date date = new Date(1_700_000_000_000L);
+    private Long millis = 1_700_000_000_000L;
+    private TaskStatus status = TaskStatus.IN_PROGRESS;
+    private int code = TaskStatus.RECORDED.getCode();
+
+    @Benchmark
+    public Long dateToLong() {
+        return converters.dateToLong(date);
+    }
+
+    @Benchmark
+    public Date longToDate() {
+        return converters.longToDate(millis);
+    }
+
+    @Benchmark
+    public int statusToCode() {
+        return converters.statusToCode(status);
+    }
+
+    @Benchmark
+    public TaskStatus codeToStatus() {
+        return converters.codeToStatus(code);
+    }
+}
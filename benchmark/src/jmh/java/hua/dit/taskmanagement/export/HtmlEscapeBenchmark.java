@@ -0,0 +1,50 @@
+package hua.dit.taskmanagement.export;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+// HTML escaping of a single value, for plain text and for text full of special characters
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HtmlEscapeBenchmark {
+    @Param({"plain", "mixed", "special"})
+    public String text;
+
+    private String input;
+    private final StringWriter out = new StringWriter(1024);
+
+    @Setup
+    public void setUp() {
+        switch (text) {
+            case "plain":
+                input = "Collect the weekly numbers from all teams and write the report";
+                break;
+            case "mixed":
+                input = "Fix <input> & \"output\" handling in O'Brien's report generator";
+                break;
+            case "special":
+                input = "<<>>&&\"\"''<<>>&&\"\"''<<>>&&\"\"''<<>>&&\"\"''<<>>&&\"\"''<<>>&&";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown text: " + text);
+        }
+    }
+
+    @Benchmark
+    public int writeEscaped() throws IOException {
+        out.getBuffer().setLength(0);
+        HtmlTaskRowSerializer.writeEscaped(out, input);
+        return out.getBuffer().length();
+    }
+}
@@ -0,0 +1,117 @@
+package hua.dit.taskmanagement.export;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+// Renders whole exports the way TaskExporter does, through the export engine and a serializer
+// Rows come from memory and the output is counted and dropped, so only rendering is measured
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TaskExportBenchmark {
+    private static final long HOUR = 3_600_000L;
+    private static final long BASE = 1_700_000_000_000L;
+    private static final TaskStatus[] OPEN_STATUSES = {
+            TaskStatus.EXPIRED, TaskStatus.IN_PROGRESS, TaskStatus.RECORDED};
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"html", "csv", "jsonl"})
+    public String format;
+
+    private TaskRowSerializer serializer;
+
+    @Setup
+    public void setUp() {
+        switch (format) {
+            case "html": serializer = new HtmlTaskRowSerializer(); break;
+            case "csv": serializer = new CsvTaskRowSerializer(); break;
+            case "jsonl": serializer = new JsonLinesTaskRowSerializer(); break;
+            default: throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        CountingWriter out = new CountingWriter();
+        TaskExportEngine.export(new GeneratedRows(rows), serializer, out);
+        return out.count;
+    }
+
+    // Rows with text that needs escaping in every format, refilled from a few fixed values
+    private static final class GeneratedRows implements TaskRowSource {
+        private static final String[] NAMES = {"Weekly report", "Fix <input> & \"output\"",
+                "Call O'Brien", "Plan sprint, part 2"};
+        private static final String[] DESCRIPTIONS = {"Collect numbers from all teams",
+                "Line one\nline two", "Ask about the \"new\" contract", "Review <b>bold</b> text"};
+        private static final String[] LOCATIONS = {"Office", "Room 3, floor 2", "Home", ""};
+
+        private final int rows;
+        private int next;
+
+        GeneratedRows(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean next(TaskRow row) {
+            if (next == rows) {
+                return false;
+            }
+            int i = next++;
+            row.setShortName(NAMES[i & 3]);
+            row.setDescription(DESCRIPTIONS[(i >> 2) & 3]);
+            // Clustered start times, as in real data
+            row.setStartTime(BASE + (i % 500) * HOUR);
+            if (i % 10 == 0) {
+                row.clearDurationHours();
+            } else {
+                row.setDurationHours(i % 48);
+            }
+            row.setLocation(LOCATIONS[(i >> 4) & 3]);
+            row.setStatus(OPEN_STATUSES[i % OPEN_STATUSES.length]);
+            return true;
+        }
+    }
+
+    // Counts the characters written and drops them
+    private static final class CountingWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
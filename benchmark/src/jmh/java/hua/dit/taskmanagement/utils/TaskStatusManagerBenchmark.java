@@ -0,0 +1,94 @@
+package hua.dit.taskmanagement.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import hua.dit.taskmanagement.entities.Task;
+import hua.dit.taskmanagement.entities.TaskStatus;
+
+// Status determination per task, per primitive row and over whole columns, and the transition check
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskStatusManagerBenchmark {
+    // Rows per batch evaluation
+    private static final int ROWS = 1_000_000;
+    private static final long HOUR = 3_600_000L;
+    private static final long NOW = 1_700_000_000_000L;
+
+    private Task[] tasks;
+    private byte[] statusCodes;
+    private long[] startMillis;
+    private int[] durationHours;
+    private byte[] evaluated;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        tasks = new Task[1024];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task("Task " + i, "Description", new Date(startTime(random)),
+                    random.nextInt(10) == 0 ? null : 1 + random.nextInt(48), "Location");
+        }
+        statusCodes = new byte[ROWS];
+        startMillis = new long[ROWS];
+        durationHours = new int[ROWS];
+        evaluated = new byte[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            statusCodes[i] = (byte) (random.nextBoolean()
+                    ? TaskStatus.RECORDED.getCode() : TaskStatus.IN_PROGRESS.getCode());
+            startMillis[i] = startTime(random);
+            durationHours[i] = 1 + random.nextInt(48);
+        }
+    }
+
+    // Start times within two days either side of now
+    private static long startTime(Random random) {
+        return NOW + (long) ((random.nextDouble() - 0.5) * 96 * HOUR);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void determineTaskStatus(Blackhole blackhole) {
+        for (Task task : tasks) {
+            blackhole.consume(TaskStatusManager.determineTaskStatus(task, NOW));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void determineStatus(Blackhole blackhole) {
+        for (int i = 0; i < 1024; i++) {
+            blackhole.consume(TaskStatusManager.determineStatus(NOW, startMillis[i], durationHours[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int determineStatuses() {
+        return TaskStatusManager.determineStatuses(NOW, statusCodes, startMillis, durationHours,
+                ROWS, evaluated);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public void canTransitionTo(Blackhole blackhole) {
+        for (TaskStatus from : TaskStatus.values()) {
+            for (TaskStatus to : TaskStatus.values()) {
+                blackhole.consume(TaskStatusManager.canTransitionTo(from, to));
+            }
+        }
+    }
+}
@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "TaskManagement"
 include(":app")
+include(":benchmark")